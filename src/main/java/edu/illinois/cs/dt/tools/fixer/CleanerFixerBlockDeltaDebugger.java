@@ -25,7 +25,7 @@ public class CleanerFixerBlockDeltaDebugger extends CleanerFixerDeltaDebugger {
 
     // Delta debugging statements within the relevant block in relation to rest of statements that contain the block, along with failing test order
     @Override
-    public boolean checkValid(List<Statement> statements) {
+    public synchronized boolean checkValid(List<Statement> statements) {
         // Save original statements from block
         NodeList<Statement> original = this.blockStmt.getStatements();
 
@@ -43,12 +43,14 @@ public class CleanerFixerDeltaDebugger extends DeltaDebugger<Statement> {
     }
 
     // Cleaner statements are valid if using them leads to order-dependent test to pass
+    // Checking writes the statements into the source and rebuilds the project, so checks are done one at a time even
+    // if this debugger is set to check chunks concurrently
     @Override
-    public boolean checkValid(List<Statement> statements) {
+    public synchronized boolean checkValid(List<Statement> statements) {
         return checkValid(statements, true);
     }
 
-    public boolean checkValid(List<Statement> statements, boolean suppressError) {
+    public synchronized boolean checkValid(List<Statement> statements, boolean suppressError) {
         // Converting to NodeList
         NodeList<Statement> cleanerStmts = NodeList.nodeList();
         cleanerStmts.addAll(statements);
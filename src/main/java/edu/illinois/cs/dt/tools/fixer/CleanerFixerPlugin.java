@@ -16,6 +16,7 @@ import com.github.javaparser.ast.stmt.ExpressionStmt;
 import com.github.javaparser.ast.stmt.Statement;
 import com.github.javaparser.ast.stmt.TryStmt;
 import com.github.javaparser.ast.type.ClassOrInterfaceType;
+import com.reedoei.eunomia.util.RuntimeThrower;
 import edu.illinois.cs.dt.tools.detection.DetectorPathManager;
 import edu.illinois.cs.dt.tools.detection.DetectorPlugin;
 import edu.illinois.cs.dt.tools.minimizer.FlakyClass;
@@ -27,6 +28,8 @@ import edu.illinois.cs.dt.tools.runner.InstrumentingSmartRunner;
 import edu.illinois.cs.dt.tools.utility.ErrorLogger;
 import edu.illinois.cs.dt.tools.utility.MvnCommands;
 import edu.illinois.cs.dt.tools.utility.OperationTime;
+import edu.illinois.cs.dt.tools.utility.TestOrder;
+import edu.illinois.cs.dt.tools.utility.deltadebug.DeltaDebugBudget;
 import edu.illinois.cs.testrunner.configuration.Configuration;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.mavenplugin.TestPlugin;
@@ -64,6 +67,9 @@ import java.util.stream.Stream;
 public class CleanerFixerPlugin extends TestPlugin {
     public static final String PATCH_LINE_SEP = "==========================";
 
+    // Start fixing each dependent test as soon as it is minimized, instead of after all dependent tests are minimized
+    private static final boolean PIPELINED = Configuration.config().getProperty("dt.fixer.pipelined", true);
+
     private MavenProject project;
     private InstrumentingSmartRunner runner;
 
@@ -122,40 +128,49 @@ public class CleanerFixerPlugin extends TestPlugin {
                 this.runner = InstrumentingSmartRunner.fromRunner(runnerOption.get());
 
                 if (!Files.exists(DetectorPathManager.originalOrderPath()) && MinimizerPlugin.ORIGINAL_ORDER == null) {
-                    Files.write(DetectorPathManager.originalOrderPath(), DetectorPlugin.getOriginalOrder(project));
+                    TestOrder.saveOriginal(DetectorPlugin.getOriginalOrder(project));
                 }
 
                 startTime = System.currentTimeMillis();
 
-                // Iterate through each minimized, collecing such that unique for dependent test, combine polluters
-                Map<String, MinimizeTestsResult> minimizedResults = new HashMap<>();
-                for (MinimizeTestsResult minimized : detect().collect(Collectors.toList())) {
-                    String dependentTest = minimized.dependentTest();
-                    if (!minimizedResults.containsKey(dependentTest)) {
-                        minimizedResults.put(dependentTest, minimized);
-                    }
-                    // Iterate through all the polluters of the current minimized, add in new ones into the existing one
-                    for (PolluterData pd : minimized.polluters()) {
-                        if (!minimizedResults.get(dependentTest).polluters().contains(pd)) {
-                            minimizedResults.get(dependentTest).polluters().add(pd);
+                if (PIPELINED) {
+                    // Fix each dependent test as soon as it is minimized, instead of waiting for all of them
+                    final Map<String, MinimizeTestsResult> fixed = new HashMap<>();
+                    detectByDependentTest().forEach(results -> {
+                        if (results.isEmpty()) {
+                            return;
                         }
-                    }
-                }
-                for (String dependentTest : minimizedResults.keySet()) {
-                    MinimizeTestsResult minimized = minimizedResults.get(dependentTest);
-                    FixerResult fixerResult = OperationTime.runOperation(() -> {
-                        return setupAndApplyFix(minimized);
-                    }, (patchResults, time) -> {
-                        // Determine overall status by looking through result of each patch result
-                        FixStatus overallStatus = FixStatus.NOD;    // Start with "lowest" enum, gets overriden by better fixes
-                        for (PatchResult res : patchResults) {
-                            if (res.status().ordinal() > overallStatus.ordinal()) {
-                                overallStatus = res.status();
-                            }
+
+                        final MinimizeTestsResult first = results.get(0);
+                        results.subList(1, results.size()).forEach(other -> mergePolluters(first, other));
+
+                        // Can only happen if the dependent test is listed more than once: combine the polluters with
+                        // the ones it was already fixed for, and only fix it again if there are new ones
+                        final MinimizeTestsResult minimized = fixed.computeIfAbsent(first.dependentTest(), t -> first);
+                        if (minimized != first && !mergePolluters(minimized, first)) {
+                            TestPluginPlugin.info("Already tried to fix dependent test " + minimized.dependentTest() + " with these polluters, skipping");
+                            return;
                         }
-                        return new FixerResult(time, overallStatus, minimized.dependentTest(), patchResults);
+
+                        new RuntimeThrower<>(() -> {
+                            fix(minimized);
+                            return null;
+                        }).run();
                     });
-                    fixerResult.save();
+                } else {
+                    // Iterate through each minimized, collecing such that unique for dependent test, combine polluters
+                    Map<String, MinimizeTestsResult> minimizedResults = new HashMap<>();
+                    for (MinimizeTestsResult minimized : detect().collect(Collectors.toList())) {
+                        String dependentTest = minimized.dependentTest();
+                        if (!minimizedResults.containsKey(dependentTest)) {
+                            minimizedResults.put(dependentTest, minimized);
+                        } else {
+                            mergePolluters(minimizedResults.get(dependentTest), minimized);
+                        }
+                    }
+                    for (String dependentTest : minimizedResults.keySet()) {
+                        fix(minimizedResults.get(dependentTest));
+                    }
                 }
             } else {
                 final String errorMsg = "Module is not using a supported test framework (probably not JUnit).";
@@ -167,7 +182,41 @@ public class CleanerFixerPlugin extends TestPlugin {
         });
     }
 
+    // Iterate through all the polluters of the other minimized, add in new ones into the existing one
+    // Returns whether any new ones were added
+    private boolean mergePolluters(final MinimizeTestsResult minimized, final MinimizeTestsResult other) {
+        boolean added = false;
+        for (PolluterData pd : other.polluters()) {
+            if (!minimized.polluters().contains(pd)) {
+                minimized.polluters().add(pd);
+                added = true;
+            }
+        }
+        return added;
+    }
+
+    private void fix(final MinimizeTestsResult minimized) throws Exception {
+        FixerResult fixerResult = OperationTime.runOperation(() -> {
+            return setupAndApplyFix(minimized);
+        }, (patchResults, time) -> {
+            // Determine overall status by looking through result of each patch result
+            FixStatus overallStatus = FixStatus.NOD;    // Start with "lowest" enum, gets overriden by better fixes
+            for (PatchResult res : patchResults) {
+                if (res.status().ordinal() > overallStatus.ordinal()) {
+                    overallStatus = res.status();
+                }
+            }
+            return new FixerResult(time, overallStatus, minimized.dependentTest(), patchResults);
+        });
+        fixerResult.save();
+    }
+
     private Stream<MinimizeTestsResult> detect() throws Exception {
+        return detectByDependentTest().flatMap(List::stream);
+    }
+
+    // The minimized results, grouped by dependent test, produced one dependent test at a time as they are consumed
+    private Stream<List<MinimizeTestsResult>> detectByDependentTest() throws Exception {
         if (!Files.exists(DetectorPathManager.detectionFile())) {
             if (Configuration.config().getProperty("diagnosis.run_detection", true)) {
                 new DetectorPlugin(DetectorPathManager.detectionResults(), runner).execute(project);
@@ -176,7 +225,7 @@ public class CleanerFixerPlugin extends TestPlugin {
             }
         }
 
-        return new MinimizerPlugin(runner).runDependentTestFile(DetectorPathManager.detectionFile(), project);
+        return new MinimizerPlugin(runner).minimizeDependentTests(DetectorPathManager.detectionFile(), project);
     }
 
     private boolean sameTestClass(String test1, String test2) {
@@ -192,7 +241,7 @@ public class CleanerFixerPlugin extends TestPlugin {
         // Check that the minimized is not some NOD, in which case we do not proceed
         if (minimized.flakyClass() == FlakyClass.NOD) {
             TestPluginPlugin.info("Will not patch discovered NOD test " + minimized.dependentTest());
-            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NOD, minimized.dependentTest(), "N/A", "N/A", 0, null));
+            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NOD, minimized.dependentTest(), "N/A", "N/A", 0, null, true));
             return patchResults;
         }
 
@@ -202,7 +251,7 @@ public class CleanerFixerPlugin extends TestPlugin {
         // All minimized orders passed in should have some polluters before (or setters in the case of the order passing)
         if (minimized.polluters().isEmpty()) {
             TestPluginPlugin.error("No polluters for: " + minimized.dependentTest());
-            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NO_DEPS, minimized.dependentTest(), "N/A", "N/A", 0, null));
+            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NO_DEPS, minimized.dependentTest(), "N/A", "N/A", 0, null, true));
             return patchResults;
         }
 
@@ -307,7 +356,7 @@ public class CleanerFixerPlugin extends TestPlugin {
         if (!victimMethodOpt.isPresent()) {
             TestPluginPlugin.error("Could not find victim method " + victimTestName);
             TestPluginPlugin.error("Tried looking in: " + testFiles);
-            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.MISSING_METHOD, victimTestName, "N/A", "N/A", 0, null));
+            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.MISSING_METHOD, victimTestName, "N/A", "N/A", 0, null, true));
             return patchResults;
         }
 
@@ -329,7 +378,7 @@ public class CleanerFixerPlugin extends TestPlugin {
                     writePatch(victimMethodOpt.get(), 0, null, 0, null, null, polluterMethodOpt.orElse(null), 0, "NO CLEANERS");
                 }*/
                 Path patch = writePatch(victimMethodOpt.get(), 0, null, 0, null, null, polluterMethodOpt.orElse(null), 0, "NO CLEANERS");
-                patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NO_CLEANER, victimTestName, polluterMethodOpt.isPresent() ? polluterMethodOpt.get().methodName() : "N/A", "N/A", 0, patch.toString()));
+                patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NO_CLEANER, victimTestName, polluterMethodOpt.isPresent() ? polluterMethodOpt.get().methodName() : "N/A", "N/A", 0, patch.toString(), true));
                 return patchResults;
             }
 
@@ -347,7 +396,7 @@ public class CleanerFixerPlugin extends TestPlugin {
             // TODO: Handle group of setters with more than one test
             if (polluterData.deps().size() > 1) {
                 TestPluginPlugin.error("There is more than one setter test (currently unsupported)");
-                patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.UNSUPPORTED, victimTestName, "N/A", "N/A", 0, null));
+                patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.UNSUPPORTED, victimTestName, "N/A", "N/A", 0, null, true));
                 return patchResults;
             }
             polluterTestName = null;    // No polluter if minimized order is passing
@@ -363,14 +412,14 @@ public class CleanerFixerPlugin extends TestPlugin {
         if (polluterTestName != null && !polluterMethodOpt.isPresent()) {
             TestPluginPlugin.error("Could not find polluter method " + polluterTestName);
             TestPluginPlugin.error("Tried looking in: " + testFiles);
-            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.MISSING_METHOD, victimTestName, polluterTestName, "N/A", 0, null));
+            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.MISSING_METHOD, victimTestName, polluterTestName, "N/A", 0, null, true));
             return patchResults;
         }
 
         // Give up if cannot find valid cleaner (single test that makes the order pass)
         if (cleanerTestNames.isEmpty()) {
             TestPluginPlugin.error("Could not get a valid cleaner for " + victimTestName);
-            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NO_CLEANER, victimTestName, polluterTestName, "N/A", 0, null));
+            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NO_CLEANER, victimTestName, polluterTestName, "N/A", 0, null, true));
             return patchResults;
         }
 
@@ -379,7 +428,7 @@ public class CleanerFixerPlugin extends TestPlugin {
         if (testOrderPasses(failingOrder)) {
             TestPluginPlugin.error("Failing order doesn't fail.");
             Path patch = writePatch(victimMethodOpt.get(), 0, null, 0, null, null, polluterMethodOpt.orElse(null), 0, "NOT FAILING ORDER");
-            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NOT_FAILING, victimTestName, polluterTestName, "N/A", 0, patch.toString()));
+            patchResults.add(new PatchResult(OperationTime.instantaneous(), FixStatus.NOT_FAILING, victimTestName, polluterTestName, "N/A", 0, patch.toString(), true));
             return patchResults;
         }
 
@@ -851,7 +900,7 @@ public class CleanerFixerPlugin extends TestPlugin {
             MvnCommands.runMvnInstall(this.project, false);
             NodeList<Statement> initialCleanerStmts = makeCleanerStatements(cleanerMethod, victimMethod);
             Path patch = writePatch(victimMethod, 0, new BlockStmt(initialCleanerStmts), statementsSize(initialCleanerStmts), null, cleanerMethod, polluterMethod, 0, "CLEANER DOES NOT FIX");
-            return new PatchResult(OperationTime.instantaneous(), FixStatus.CLEANER_FAIL, victimMethod.methodName(), "N/A", cleanerMethod.methodName(), 0, patch.toString());
+            return new PatchResult(OperationTime.instantaneous(), FixStatus.CLEANER_FAIL, victimMethod.methodName(), "N/A", cleanerMethod.methodName(), 0, patch.toString(), true);
         }
         final JavaMethod auxiliaryMethodToModify = (JavaMethod)startingValues[1];
         final JavaMethod finalHelperMethod = (JavaMethod)startingValues[2];
@@ -862,7 +911,11 @@ public class CleanerFixerPlugin extends TestPlugin {
         TestPluginPlugin.info("Going to modify " + methodToModify.methodName() + " to make failing order pass.");
         final List<OperationTime> elapsedTime = new ArrayList<>();
         int originalsize = statementsSize(cleanerStmts);
+        // One budget for all of the minimizing below, since the delta debugging is repeated until reaching a fixpoint
+        final DeltaDebugBudget budget = DeltaDebugBudget.fromConfig();
+        final boolean[] fixpoint = new boolean[1];
         final CleanerFixerDeltaDebugger finalDebugger = new CleanerFixerDeltaDebugger(this.project, this.runner, finalHelperMethod, failingOrder, finalPrepend);
+        finalDebugger.withBudget(budget);
         final NodeList<Statement> minimalCleanerStmts = OperationTime.runOperation(() -> {
             // Cleaner is good, so now we can start delta debugging
             NodeList<Statement> interCleanerStmts = NodeList.nodeList(cleanerStmts);
@@ -873,7 +926,7 @@ public class CleanerFixerPlugin extends TestPlugin {
                 interCleanerStmts.addAll(finalDebugger.deltaDebug(currentInterCleanerStmts, 2));
 
                 // Debug each statement further if they contain blocks, so debug within statements in that block(s)
-                interCleanerStmts = debugFurther(interCleanerStmts, finalHelperMethod, failingOrder, finalPrepend, interCleanerStmts);
+                interCleanerStmts = debugFurther(interCleanerStmts, finalHelperMethod, failingOrder, finalPrepend, interCleanerStmts, budget);
 
                 // "Unravel" any blocks and potentially debug some more
                 NodeList<Statement> unraveledCleanerStmts = NodeList.nodeList();
@@ -905,9 +958,10 @@ public class CleanerFixerPlugin extends TestPlugin {
                     }
                 }
                 interCleanerStmts = unraveledCleanerStmts;
-            // Continually loop and try to minimize more, until reach fixpoint
+                fixpoint[0] = interCleanerStmts.equals(currentInterCleanerStmts);
+            // Continually loop and try to minimize more, until reach fixpoint (or run out of budget)
             // Can end up minimizing more after unraveling blocks and such, revealing more opportunities to minimize
-            } while(!interCleanerStmts.equals(currentInterCleanerStmts));
+            } while(!fixpoint[0] && !budget.exhausted());
 
             return interCleanerStmts;
         }, (finalCleanerStmts, time) -> {
@@ -916,6 +970,10 @@ public class CleanerFixerPlugin extends TestPlugin {
         });
 
         int iterations = finalDebugger.getIterations();
+        boolean minimal = fixpoint[0] && !budget.truncated();
+        if (!minimal) {
+            TestPluginPlugin.info("Ran out of budget minimizing patch, patch may not be minimal.");
+        }
 
         BlockStmt patchedBlock = new BlockStmt(minimalCleanerStmts);
 
@@ -926,7 +984,7 @@ public class CleanerFixerPlugin extends TestPlugin {
             restore(finalHelperMethod.javaFile());
             MvnCommands.runMvnInstall(this.project, false);
             Path patch = writePatch(victimMethod, 0, patchedBlock, originalsize, methodToModify, cleanerMethod, polluterMethod, elapsedTime.get(0).elapsedSeconds(), "BROKEN MINIMAL");
-            return new PatchResult(elapsedTime.get(0), FixStatus.FIX_INVALID, victimMethod.methodName(), polluterMethod != null ? polluterMethod.methodName() : "N/A", cleanerMethod.methodName(), iterations, patch.toString());
+            return new PatchResult(elapsedTime.get(0), FixStatus.FIX_INVALID, victimMethod.methodName(), polluterMethod != null ? polluterMethod.methodName() : "N/A", cleanerMethod.methodName(), iterations, patch.toString(), minimal);
         }
 
         // Try to inline these statements into the method
@@ -989,12 +1047,13 @@ public class CleanerFixerPlugin extends TestPlugin {
         // Final compile to get state to right place
         MvnCommands.runMvnInstall(this.project, false);
 
-        return new PatchResult(elapsedTime.get(0), fixStatus, victimMethod.methodName(), polluterMethod != null ? polluterMethod.methodName() : "N/A", cleanerMethod.methodName(), iterations, patchFile.toString());
+        return new PatchResult(elapsedTime.get(0), fixStatus, victimMethod.methodName(), polluterMethod != null ? polluterMethod.methodName() : "N/A", cleanerMethod.methodName(), iterations, patchFile.toString(), minimal);
     }
 
     // Debug list of statements even further, if any statement contains blocks
     private NodeList<Statement> debugFurther(NodeList<Statement> stmts, JavaMethod helperMethod,
-                                             List<String> failingOrder, boolean prepend, NodeList<Statement> stmtsToRun) {
+                                             List<String> failingOrder, boolean prepend, NodeList<Statement> stmtsToRun,
+                                             DeltaDebugBudget budget) {
         CleanerFixerBlockDeltaDebugger debugger;
 
         // Iterate through all statements and try to debug further if contain block
@@ -1005,35 +1064,39 @@ public class CleanerFixerPlugin extends TestPlugin {
                 BlockStmt blockStmt = (BlockStmt)stmt;
 
                 debugger = new CleanerFixerBlockDeltaDebugger(this.project, this.runner, helperMethod, failingOrder, prepend, blockStmt, stmtsToRun);
+
+                debugger.withBudget(budget);
                 NodeList<Statement> minimalBlockStmts = NodeList.nodeList();
                 minimalBlockStmts.addAll(debugger.deltaDebug(blockStmt.getStatements(), 2));
                 blockStmt.setStatements(minimalBlockStmts);
 
                 // Debug further nested blocks
-                minimalBlockStmts = debugFurther(minimalBlockStmts, helperMethod, failingOrder, prepend, stmtsToRun);
+                minimalBlockStmts = debugFurther(minimalBlockStmts, helperMethod, failingOrder, prepend, stmtsToRun, budget);
                 blockStmt.setStatements(minimalBlockStmts);
             } else if (stmt instanceof TryStmt) {
                 TryStmt tryStmt = (TryStmt)stmt;
 
                 // Do the try block part
                 debugger = new CleanerFixerBlockDeltaDebugger(this.project, this.runner, helperMethod, failingOrder, prepend, tryStmt.getTryBlock(), stmtsToRun);
+                debugger.withBudget(budget);
                 NodeList<Statement> minimalBlockStmts = NodeList.nodeList();
                 minimalBlockStmts.addAll(debugger.deltaDebug(tryStmt.getTryBlock().getStatements(), 2));
                 tryStmt.setTryBlock(new BlockStmt(minimalBlockStmts));
 
                 // Debug further nested blocks
-                minimalBlockStmts = debugFurther(minimalBlockStmts, helperMethod, failingOrder, prepend, stmtsToRun);
+                minimalBlockStmts = debugFurther(minimalBlockStmts, helperMethod, failingOrder, prepend, stmtsToRun, budget);
                 tryStmt.setTryBlock(new BlockStmt(minimalBlockStmts));
 
                 // If has finally block, do that
                 if (tryStmt.getFinallyBlock().isPresent()) {
                     debugger = new CleanerFixerBlockDeltaDebugger(this.project, this.runner, helperMethod, failingOrder, prepend, tryStmt.getFinallyBlock().get(), stmtsToRun);
+                    debugger.withBudget(budget);
                     minimalBlockStmts = NodeList.nodeList();
                     minimalBlockStmts.addAll(debugger.deltaDebug(tryStmt.getFinallyBlock().get().getStatements(), 2));
                     tryStmt.setFinallyBlock(new BlockStmt(minimalBlockStmts));
 
                     // Debug further nested blocks
-                    minimalBlockStmts = debugFurther(minimalBlockStmts, helperMethod, failingOrder, prepend, stmtsToRun);
+                    minimalBlockStmts = debugFurther(minimalBlockStmts, helperMethod, failingOrder, prepend, stmtsToRun, budget);
                     tryStmt.setFinallyBlock(new BlockStmt(minimalBlockStmts));
 
                     // If the finally block is empty, remove
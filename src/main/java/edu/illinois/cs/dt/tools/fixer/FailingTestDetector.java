@@ -1,6 +1,7 @@
 package edu.illinois.cs.dt.tools.fixer;
 
 import edu.illinois.cs.dt.tools.runner.InstrumentingSmartRunner;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.data.results.TestRunResult;
 import scala.util.Try;
@@ -24,7 +25,7 @@ public class FailingTestDetector {
             return Optional.of(notPassingTests);
         }
 
-        final Try<TestRunResult> testRunResultTry = runner.runList(tests);
+        final Try<TestRunResult> testRunResultTry = TestDurations.profile().record(runner.runList(tests));
 
         if (testRunResultTry.isSuccess()) {
             testRunResultTry.get().results().forEach((testName, res) -> {
@@ -13,10 +13,11 @@ public class PatchResult {
     private String cleaner;
     private int iterations;
     private String patchLocation;
+    private boolean truncated;  // True if minimizing the patch ran out of budget, so the patch may not be minimal (false in older results)
 
     public PatchResult(final OperationTime time, final FixStatus status,
                        final String dependentTest, final String polluter, final String cleaner,
-                       final int iterations, final String patchLocation) {
+                       final int iterations, final String patchLocation, final boolean minimal) {
         this.time = time;
         this.status = status;
         this.dependentTest = dependentTest;
@@ -24,6 +25,7 @@ public class PatchResult {
         this.cleaner = cleaner;
         this.iterations = iterations;
         this.patchLocation = patchLocation;
+        this.truncated = !minimal;
     }
 
     public OperationTime time() {
@@ -49,4 +51,8 @@ public class PatchResult {
     public String patchLocation() {
         return this.patchLocation;
     }
+
+    public boolean minimal() {
+        return !this.truncated;
+    }
 }
@@ -4,8 +4,11 @@ import com.google.gson.Gson;
 import com.reedoei.eunomia.collections.ListUtil;
 import com.reedoei.eunomia.io.IOUtil;
 import com.reedoei.eunomia.io.files.FileUtil;
+import edu.illinois.cs.dt.tools.utility.DependentTestOrder;
 import edu.illinois.cs.dt.tools.utility.MD5;
 import edu.illinois.cs.dt.tools.utility.OperationTime;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
+import edu.illinois.cs.dt.tools.utility.Verification;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.data.results.TestRunResult;
 import edu.illinois.cs.testrunner.runner.Runner;
@@ -17,7 +20,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class MinimizeTestsResult {
-    private static final int VERIFY_REPEAT_COUNT = 1;
+    // At most how many times to run each check when verifying
+    private static final int VERIFY_REPEAT_COUNT = Verification.MAX_RUNS;
     private static final int MAX_SUBSEQUENCES = 1000;
 
     private final OperationTime time;
@@ -27,6 +31,8 @@ public class MinimizeTestsResult {
     private final List<PolluterData> polluters;
     private final String hash;
     private final FlakyClass flakyClass;    // The classification of this one's dependent test can be "OD" or "NOD" (if reruns found it to be not order-dependent)
+    private final int runs;                 // Number of test runs the minimizer needed to find the polluters
+    private Double confidence;              // Lowest confidence of the checks when verifying the polluters (none if no checks were run)
 
     public static MinimizeTestsResult fromPath(final Path path) throws IOException {
         return fromString(FileUtil.readFile(path));
@@ -37,7 +43,8 @@ public class MinimizeTestsResult {
     }
 
     public MinimizeTestsResult(final OperationTime time, final TestRunResult expectedRun, final Result expected,
-                               final String dependentTest, final List<PolluterData> polluters, final FlakyClass flakyClass) {
+                               final String dependentTest, final List<PolluterData> polluters, final FlakyClass flakyClass,
+                               final int runs) {
         this.time = time;
         this.expectedRun = expectedRun;
         this.expected = expected;
@@ -45,6 +52,7 @@ public class MinimizeTestsResult {
         this.polluters = polluters;
         this.hash = MD5.hashOrder(expectedRun.testOrder());
         this.flakyClass = flakyClass;
+        this.runs = runs;
     }
 
     public OperationTime time() {
@@ -59,43 +67,44 @@ public class MinimizeTestsResult {
         return this.flakyClass;
     }
 
+    public int runs() {
+        return this.runs;
+    }
+
+    public Double confidence() {
+        return this.confidence;
+    }
+
     private boolean isExpected(final Runner runner, final List<String> deps) {
-        final List<String> order = new ArrayList<>(deps);
-        order.add(dependentTest());
+        final List<String> order = DependentTestOrder.of(deps, dependentTest());
 
-        return runner
-                .runList(order)
+        return TestDurations.profile()
+                .record(runner.runList(order))
                 .get()
                 .results()
                 .get(dependentTest()).result().equals(expected());
     }
 
+    // Each check is rerun until confident whether it reliably holds, up to VERIFY_REPEAT_COUNT times
     public boolean verify(final Runner runner) throws Exception {
-        return verify(runner, VERIFY_REPEAT_COUNT);
-    }
-
-    public boolean verify(final Runner runner, final int verifyCount) throws Exception {
         List<PolluterData> pollutersToRemove = new ArrayList<>();
+        confidence = null;
         for (PolluterData polluter : polluters) {
             try {
-                for (int i = 0; i < verifyCount; i++) {
-                    List<String> deps = polluter.deps();
-                    final List<List<String>> depLists = ListUtil.sample(ListUtil.subsequences(deps), MAX_SUBSEQUENCES);
-                    int check = 1;
-                    int totalChecks = 2 + depLists.size() - 1;
-
-                    IOUtil.printClearLine(String.format("Verifying %d of %d. Running check %d of %d.", i + 1, verifyCount, check++, totalChecks));
-                    // Check that it's correct with the dependencies
-                    if (!isExpected(runner, deps)) {
-                        throw new MinimizeTestListException("Got unexpected result when running with all dependencies!");
-                    }
-
-                    // Only run the first check if there are no dependencies.
-                    if (deps.isEmpty()) {
-                        continue;
-                    }
-
-                    verifyDependencies(runner, verifyCount, i, deps, depLists, check, totalChecks);
+                List<String> deps = polluter.deps();
+                final List<List<String>> depLists = ListUtil.sample(ListUtil.subsequences(deps), MAX_SUBSEQUENCES);
+                int check = 1;
+                int totalChecks = 2 + depLists.size() - 1;
+
+                IOUtil.printClearLine(String.format("Verifying. Running check %d of %d.", check++, totalChecks));
+                // Check that it's correct with the dependencies
+                if (!confirmExpected(runner, deps, true)) {
+                    throw new MinimizeTestListException("Got unexpected result when running with all dependencies!");
+                }
+
+                // Only run the first check if there are no dependencies.
+                if (!deps.isEmpty()) {
+                    verifyDependencies(runner, deps, depLists, check, totalChecks);
                 }
 
                 System.out.println();
@@ -114,15 +123,13 @@ public class MinimizeTestsResult {
     }
 
     private void verifyDependencies(final Runner runner,
-                                    final int verifyCount,
-                                    final int i,
                                     final List<String> deps,
                                     final List<List<String>> depLists,
                                     int check,
                                     final int totalChecks) throws Exception {
-        IOUtil.printClearLine(String.format("Verifying %d of %d. Running check %d of %d.", i + 1, verifyCount, check++, totalChecks));
+        IOUtil.printClearLine(String.format("Verifying. Running check %d of %d.", check++, totalChecks));
         // Check that it's wrong without dependencies.
-        if (isExpected(runner, new ArrayList<>())) {
+        if (!confirmExpected(runner, new ArrayList<>(), false)) {
             throw new MinimizeTestListException("Got expected result even without any dependencies!");
         }
 
@@ -132,13 +139,28 @@ public class MinimizeTestsResult {
                 continue;
             }
 
-            IOUtil.printClearLine(String.format("Verifying %d of %d. Running check %d of %d.",  i + 1, verifyCount, check++, totalChecks));
-            if (isExpected(runner, depList)) {
+            IOUtil.printClearLine(String.format("Verifying. Running check %d of %d.", check++, totalChecks));
+            if (!confirmExpected(runner, depList, false)) {
                 throw new MinimizeTestListException("Got expected result without some dependencies! " + depList);
             }
         }
     }
 
+    // Whether running with the deps reliably gets (or reliably does not get) the expected result
+    private boolean confirmExpected(final Runner runner, final List<String> deps, final boolean shouldBeExpected) {
+        final Verification<Boolean> verification =
+                Verification.confirm(() -> isExpected(runner, deps) == shouldBeExpected, VERIFY_REPEAT_COUNT);
+        confidence = confidence == null ? verification.confidence() : Math.min(confidence, verification.confidence());
+        return verification.confirmed();
+    }
+
+    // The same result, but classified as not order-dependent (e.g., because verifying it failed)
+    public MinimizeTestsResult nod() {
+        final MinimizeTestsResult nod = new MinimizeTestsResult(time, expectedRun, expected, dependentTest, polluters, FlakyClass.NOD, runs);
+        nod.confidence = confidence;
+        return nod;
+    }
+
     @Override
     public String toString() {
         return new Gson().toJson(this);
@@ -0,0 +1,108 @@
+package edu.illinois.cs.dt.tools.minimizer;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.reedoei.eunomia.io.files.FileUtil;
+import com.reedoei.eunomia.util.RuntimeThrower;
+import edu.illinois.cs.testrunner.mavenplugin.TestPluginPlugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+// Progress of minimizing one dependent test, saved as the minimizer goes, so if the minimizer is stopped partway
+// (e.g., the Maven process dies) it can continue from here the next time instead of starting over
+public class MinimizerCheckpoint {
+    private transient Path path;
+
+    private final List<PolluterData> polluters = new ArrayList<>();     // Polluters found so far, in the order found
+    private int runs;                   // Number of test runs used so far
+    private List<String> remaining;     // Remaining tests of the delta debugging in progress, null if none in progress
+    private int granularity;            // Granularity of the delta debugging in progress
+    private PolluterSearch search;      // How the polluters were being searched for by the delta debugging in progress
+
+    private MinimizerCheckpoint() {
+    }
+
+    public static MinimizerCheckpoint load(final Path path) {
+        MinimizerCheckpoint checkpoint = null;
+        if (Files.exists(path)) {
+            try {
+                checkpoint = new RuntimeThrower<>(() -> new Gson().fromJson(FileUtil.readFile(path), MinimizerCheckpoint.class)).run();
+            } catch (JsonParseException e) {
+                // Checkpoints are written by replacing the whole file at once, so this should not happen, but starting
+                // over is always safe
+                TestPluginPlugin.info("Minimizer checkpoint " + path + " is corrupt, starting over: " + e.getMessage());
+            }
+        }
+        if (checkpoint == null) {
+            checkpoint = new MinimizerCheckpoint();
+        }
+        checkpoint.path = path;
+        return checkpoint;
+    }
+
+    public List<PolluterData> polluters() {
+        return polluters;
+    }
+
+    public int runs() {
+        return runs;
+    }
+
+    // The remaining tests of the delta debugging in progress, if it was over tests from this order
+    public Optional<List<String>> remaining(final List<String> order) {
+        if (remaining != null && new HashSet<>(order).containsAll(remaining)) {
+            return Optional.of(remaining);
+        }
+        return Optional.empty();
+    }
+
+    public int granularity() {
+        return granularity;
+    }
+
+    // Checkpoints from before the search was saved were always delta debugging
+    public PolluterSearch search() {
+        return search == null ? PolluterSearch.DELTA_DEBUG : search;
+    }
+
+    public void deltaDebugging(final List<String> remaining, final int granularity, final int runs,
+                               final PolluterSearch search) {
+        this.remaining = remaining;
+        this.granularity = granularity;
+        this.runs = runs;
+        this.search = search;
+        save();
+    }
+
+    public void polluterFound(final PolluterData polluter, final int runs) {
+        this.polluters.add(polluter);
+        this.remaining = null;
+        this.granularity = 0;
+        this.search = null;
+        this.runs = runs;
+        save();
+    }
+
+    // Once minimizing is done, the result itself is saved, so the checkpoint is no longer needed
+    public void delete() {
+        new RuntimeThrower<>(() -> Files.deleteIfExists(path)).run();
+    }
+
+    // Written to a temporary file that then replaces the checkpoint, so dying partway never leaves half a checkpoint
+    private void save() {
+        new RuntimeThrower<>(() -> {
+            Files.createDirectories(path.getParent());
+            final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, new Gson().toJson(this).getBytes());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            return null;
+        }).run();
+    }
+}
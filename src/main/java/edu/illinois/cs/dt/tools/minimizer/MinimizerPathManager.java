@@ -8,6 +8,7 @@ import java.nio.file.Paths;
 
 public class MinimizerPathManager extends PathManager {
     public static final Path MINIMIZED = Paths.get("minimized");
+    public static final Path CHECKPOINTS = Paths.get("minimizer-checkpoints");
 
     public static Path minimized() {
         return path(MINIMIZED);
@@ -21,6 +22,16 @@ public class MinimizerPathManager extends PathManager {
         return minimized(Paths.get(String.format("%s-%s-%s-dependencies.json", dependentTest, hash, expected)));
     }
 
+    // Progress of minimizing, kept until minimizing is done so it can be continued if stopped partway
+    public static Path checkpoint(final String dependentTest, final String hash, final Result expected, final String part) {
+        return path(CHECKPOINTS.resolve(String.format("%s-%s-%s-%s.json", dependentTest, hash, expected, part)));
+    }
+
+    // Metrics of one delta debugging session done while minimizing, kept next to the minimized result
+    public static Path deltaDebugMetrics(final String dependentTest, final String hash, final Result expected, final String session) {
+        return minimized(Paths.get(String.format("%s-%s-%s-deltadebug-%s.json", dependentTest, hash, expected, session)));
+    }
+
     public static Path minimizeResultsPath(final MinimizeTestsResult minimized) {
         return minimizeResultsPath(minimized, "");
     }
@@ -10,8 +10,14 @@ import edu.illinois.cs.dt.tools.runner.data.DependentTest;
 import edu.illinois.cs.dt.tools.runner.data.DependentTestList;
 import edu.illinois.cs.dt.tools.runner.data.TestRun;
 import edu.illinois.cs.dt.tools.utility.ErrorLogger;
+import edu.illinois.cs.dt.tools.utility.RunnerPool;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
+import edu.illinois.cs.dt.tools.utility.TestOrder;
+import edu.illinois.cs.dt.tools.utility.TestRunStore;
+import edu.illinois.cs.dt.tools.utility.Verification;
 import edu.illinois.cs.testrunner.configuration.Configuration;
 import edu.illinois.cs.testrunner.data.results.Result;
+import edu.illinois.cs.testrunner.data.results.TestRunResult;
 import edu.illinois.cs.testrunner.mavenplugin.TestPlugin;
 import edu.illinois.cs.testrunner.mavenplugin.TestPluginPlugin;
 import edu.illinois.cs.testrunner.runner.Runner;
@@ -26,6 +32,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 public class MinimizerPlugin extends TestPlugin {
@@ -37,6 +48,12 @@ public class MinimizerPlugin extends TestPlugin {
     private static final boolean VERIFY_DTS = Configuration.config().getProperty("dt.verify", true);
     public static final String FLAKY_LIST = Configuration.config().getProperty("dt.minimizer.flaky.list", null);
     public static final String ORIGINAL_ORDER = Configuration.config().getProperty("dt.minimizer.original.order", null);
+    // At most how many times to run the dependent test in isolation to check it always has the same result
+    private static final int ISOLATION_RUNS = Configuration.config().getProperty("dt.minimizer.isolation.runs", 10);
+    // Number of isolation runs of a dependent test to do at the same time (it is rerun until confident its result is deterministic)
+    private static final int ISOLATION_PARALLELISM = Configuration.config().getProperty("dt.minimizer.isolation.parallelism", 1);
+    // Number of dependent tests to minimize at the same time
+    private static final int PARALLELISM = Configuration.config().getProperty("dt.minimizer.parallelism", 1);
 
     /**
      * This will clear all the cached test runs!
@@ -51,7 +68,26 @@ public class MinimizerPlugin extends TestPlugin {
         this.builder = new TestMinimizerBuilder(runner);
     }
 
-    private Stream<TestMinimizer> fromDtList(Path path, MavenProject project) {
+    private Stream<List<MinimizeTestsResult>> fromDtList(Path path, MavenProject project) {
+        final List<DependentTest> dependentTests = dependentTests(path, project);
+        final TestOrder finalOriginalOrder = USE_ORIGINAL_ORDER ? originalOrder() : null;
+        return dependentTests.stream()
+                .map(dt -> minimizers(dt, builder, runner, finalOriginalOrder)
+                        .flatMap(this::minimize)
+                        .collect(Collectors.toList()));
+    }
+
+    // The original order as set up by dependentTests
+    private TestOrder originalOrder() {
+        try {
+            return TestOrder.original();
+        } catch (IOException e) {
+            return TestOrder.of(new ArrayList<>());
+        }
+    }
+
+    // Reads (or generates) the dependent tests to minimize, making sure the original order file is in place
+    private List<DependentTest> dependentTests(Path path, MavenProject project) {
         if (FLAKY_LIST != null) {
             path = Paths.get(FLAKY_LIST);
             TestPluginPlugin.info("dt.minimizer.flaky.list argument specified: " + FLAKY_LIST);
@@ -66,7 +102,7 @@ public class MinimizerPlugin extends TestPlugin {
             Path originalOrderPath = DetectorPathManager.originalOrderPath();
             List<String> originalOrder;
             if (Files.exists(originalOrderPath)) {
-                originalOrder = Files.readAllLines(originalOrderPath);
+                originalOrder = TestOrder.original().tests();
             } else {
                 originalOrder = new ArrayList<>();
             }
@@ -91,7 +127,7 @@ public class MinimizerPlugin extends TestPlugin {
 
                     // Copy the original order file to where we expect it to be since other parts of the tool still expects it to be there
                     // Future versions of iDFlakies should allow us to set the DetectorPathManager.originalOrderPath directly
-                    Files.write(originalOrderPath, originalOrderSpecified);
+                    TestOrder.saveOriginal(originalOrderSpecified);
 
                     TestPluginPlugin.info("Specified original order copied to: " + originalOrderPath);
                     originalOrder = originalOrderSpecified;
@@ -102,7 +138,7 @@ public class MinimizerPlugin extends TestPlugin {
                 TestPluginPlugin.info("Original order file not found or is empty. Creating original-order file now at: "
                                       + originalOrderPath);
                 originalOrder = DetectorPlugin.getOriginalOrder(project, true);
-                Files.write(originalOrderPath, originalOrder);
+                TestOrder.saveOriginal(originalOrder);
             }
 
             DependentTestList dependentTestList = DependentTestList.fromFile(path);
@@ -126,47 +162,49 @@ public class MinimizerPlugin extends TestPlugin {
                 if (!dependentTest.isPresent()) {
                     throw new IllegalArgumentException("Dependent test name is specificed but could not find matching dependent test.");
                 } else {
-                    return minimizers(dependentTest.get(), builder, runner, USE_ORIGINAL_ORDER ? originalOrder : null);
+                    return Collections.singletonList(dependentTest.get());
                 }
             } else {
-                List<String> finalOriginalOrder = originalOrder;
                 if (dependentTestList.dts().size() > 1) {
                     TestPluginPlugin.debug("More than one dependent test list detected. Original order cannot be trusted.");
                 }
-                return dependentTestList.dts().stream()
-		    .flatMap(dt -> minimizers(dt, builder, runner, USE_ORIGINAL_ORDER ? finalOriginalOrder : null));
+                return dependentTestList.dts();
             }
         } catch (IOException e) {
-            return Stream.empty();
+            return Collections.emptyList();
         }
     }
 
     public Stream<TestMinimizer> minimizers(final DependentTest dependentTest,
 					    final TestMinimizerBuilder builder,
 					    final Runner runner,
-					    List<String> originalOrder) {
+					    TestOrder originalOrder) {
         final TestRun intended = dependentTest.intended();
         final TestRun revealed = dependentTest.revealed();
         final String name = dependentTest.name();
         final TestMinimizerBuilder minimizerBuilder = builder.dependentTest(name);
 
+        // So orders that hang time out based on how long they are expected to take
+        TestDurations.profile().seed(runner);
+
+        // Detection already ran these orders, so keep their results to not run them again (if the code is the same)
+        TestRunStore.store().importRun(intended);
+        TestRunStore.store().importRun(revealed);
+
         if (VERIFY_DTS) {
-            if (!intended.verify(name, runner, null) || !revealed.verify(name, runner, null)) {
+            if (!verify(name, intended, runner) || !verify(name, revealed, runner)) {
                 return Stream.of(minimizerBuilder.buildNOD());
             }
         }
 
         // Try running dependent test in isolation to determine which order to minimize
-        // Also run it 10 times to be more confident that test is deterministic in its result
-        final Result isolationResult = runner.runList(Collections.singletonList(name)).get().results().get(name).result();
-        for (int i = 0; i < 9; i++) {
-            Result rerunIsolationResult = runner.runList(Collections.singletonList(name)).get().results().get(name).result();
-            // If ever get different result, then not confident in result, return
-            if (!rerunIsolationResult.equals(isolationResult)) {
-                System.out.println("Test " + name + " does not have consistent result in isolation, not order-dependent!");
-                return Stream.of(minimizerBuilder.buildNOD());
-            }
+        // Also run it until confident that test is deterministic in its result
+        final Optional<Result> consistentIsolationResult = isolationResult(name, runner);
+        if (!consistentIsolationResult.isPresent()) {
+            System.out.println("Test " + name + " does not have consistent result in isolation, not order-dependent!");
+            return Stream.of(minimizerBuilder.buildNOD());
         }
+        final Result isolationResult = consistentIsolationResult.get();
 
         TestMinimizer tm;
         if (originalOrder != null) {
@@ -189,16 +227,46 @@ public class MinimizerPlugin extends TestPlugin {
         return Stream.of(tm);
     }
 
-    private List<String> reorderOriginalOrder(List<String> intended, List<String> originalOrder) {
-        List<String> retList = new ArrayList<>(intended);
+    // Checks the test still has the same result in the order, only running the order if another run of it is not stored
+    private boolean verify(final String name, final TestRun testRun, final Runner runner) {
+        final List<String> order = new ArrayList<>(testRun.order());
+        if (!order.contains(name)) {
+            order.add(name);
+        }
 
-        for (String test : originalOrder) {
-            if (!intended.contains(test)) {
-                retList.add(test);
-            }
+        final Optional<TestRunResult> stored = TestRunStore.store().lookup(order);
+        // The stored run may be the very run the result came from (e.g., imported from detection), which cannot
+        // confirm anything, so the order has to be run again then
+        if (stored.isPresent() && stored.get().results().containsKey(name) && !stored.get().id().equals(testRun.testRunId())) {
+            TestPluginPlugin.info("Verifying " + name + " with stored run " + stored.get().id() + " of the same order");
+            return stored.get().results().get(name).result().equals(testRun.result());
         }
+
+        return testRun.verify(name, runner, null);
+    }
+
+    // Reruns the test in isolation until confident the result is always the same, returning it if so
+    // Stops at the first run with a different result, since the test is then not order-dependent
+    private Optional<Result> isolationResult(final String name, final Runner runner) {
+        // Each worker gets its own runner, since runners cannot run more than one test run at a time
+        final RunnerPool runners = new RunnerPool(runner);
+        final Verification<Result> verification =
+                Verification.consistent(() -> isolationRun(name, runners.runner()), ISOLATION_PARALLELISM, ISOLATION_RUNS);
+        TestPluginPlugin.info("Result of " + name + " in isolation: " + verification);
+
+        return verification.confirmed() ? Optional.of(verification.outcome()) : Optional.empty();
+    }
+
+    private Result isolationRun(final String name, final Runner runner) {
+        return TestDurations.profile().record(runner.runList(Collections.singletonList(name))).get().results().get(name).result();
+    }
+
+    private List<String> reorderOriginalOrder(List<String> intended, TestOrder originalOrder) {
+        List<String> retList = new ArrayList<>(intended);
+        retList.addAll(originalOrder.complement(TestOrder.of(intended)));
+
         try {
-            Files.write(DetectorPathManager.originalOrderPath(), retList);
+            TestOrder.saveOriginal(retList);
         } catch (IOException e) {
             TestPluginPlugin.error("Created new original order but could not write to "
                                            + DetectorPathManager.originalOrderPath());
@@ -210,17 +278,65 @@ public class MinimizerPlugin extends TestPlugin {
     }
 
     public Stream<MinimizeTestsResult> runDependentTestFile(final Path dtFile, MavenProject project) {
-        return fromDtList(dtFile, project).flatMap(minimizer -> {
-            try {
-                final MinimizeTestsResult result = minimizer.get();
-                result.save();
-                return Stream.of(result);
-            } catch (Exception e) {
-                e.printStackTrace();
+        return minimizeDependentTests(dtFile, project).flatMap(List::stream);
+    }
+
+    // The results of minimizing each dependent test (one for each order it was minimized in), in the same order as the
+    // dependent tests in the file. When minimizing one at a time, the next dependent test is only minimized once the
+    // results for the previous one have been used, so the results can be used as soon as each dependent test is done
+    public Stream<List<MinimizeTestsResult>> minimizeDependentTests(final Path dtFile, MavenProject project) {
+        if (PARALLELISM > 1) {
+            // Using the original order rewrites the original order file for each dependent test, so cannot be shared
+            if (USE_ORIGINAL_ORDER) {
+                TestPluginPlugin.info("Minimizing one dependent test at a time, since dt.minimizer.use.original.order is set to true");
+            } else {
+                return runDependentTestFileInParallel(dtFile, project);
+            }
+        }
+
+        return fromDtList(dtFile, project);
+    }
+
+    // Minimizes up to PARALLELISM dependent tests at the same time, each with its own runner
+    // Each result is saved as soon as it is done, but the results are given in the same order as minimizing one at a time
+    private Stream<List<MinimizeTestsResult>> runDependentTestFileInParallel(final Path dtFile, final MavenProject project) {
+        final List<DependentTest> dependentTests = dependentTests(dtFile, project);
+        TestPluginPlugin.info("Minimizing " + dependentTests.size() + " dependent tests, " + PARALLELISM + " at a time.");
+
+        final ExecutorService workers = Executors.newFixedThreadPool(PARALLELISM);
+        try {
+            final List<Future<List<MinimizeTestsResult>>> results = new ArrayList<>();
+            for (final DependentTest dependentTest : dependentTests) {
+                results.add(workers.submit(() -> {
+                    final InstrumentingSmartRunner workerRunner = RunnerPool.workerRunner(runner);
+                    return minimizers(dependentTest, new TestMinimizerBuilder(workerRunner), workerRunner, null)
+                            .flatMap(this::minimize)
+                            .collect(Collectors.toList());
+                }));
+            }
+
+            final List<List<MinimizeTestsResult>> minimized = new ArrayList<>();
+            for (final Future<List<MinimizeTestsResult>> result : results) {
+                minimized.add(result.get());
             }
+            return minimized.stream();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private Stream<MinimizeTestsResult> minimize(final TestMinimizer minimizer) {
+        try {
+            final MinimizeTestsResult result = minimizer.get();
+            result.save();
+            return Stream.of(result);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
 
-            return Stream.empty();
-        });
+        return Stream.empty();
     }
 
     @Override
@@ -12,12 +12,17 @@ public class PolluterData {
     private final int index;            // The index of when this polluter was found (0 is first)
     private final List<String> deps;
     private final CleanerData cleanerData;
+    private final PolluterSearch search;    // How the minimizer actually found this polluter
+    private final boolean truncated;        // True if the minimizer ran out of budget, so deps may not be minimal (false in older results)
 
-    public PolluterData(final OperationTime time, final int index, final List<String> deps, final CleanerData cleanerData) {
+    public PolluterData(final OperationTime time, final int index, final List<String> deps, final CleanerData cleanerData,
+                        final PolluterSearch search, final boolean minimal) {
         this.time = time;
         this.index = index;
         this.deps = deps;
         this.cleanerData = cleanerData;
+        this.search = search;
+        this.truncated = !minimal;
     }
 
     public OperationTime time() {
@@ -36,6 +41,14 @@ public class PolluterData {
         return cleanerData;
     }
 
+    public PolluterSearch search() {
+        return search;
+    }
+
+    public boolean minimal() {
+        return !truncated;
+    }
+
     public List<String> withDeps(final String dependentTest) {
         final List<String> order = new ArrayList<>(deps);
         if (!order.contains(dependentTest)) {
@@ -0,0 +1,11 @@
+package edu.illinois.cs.dt.tools.minimizer;
+
+// How the minimizer searches the prefix of the dependent test for polluters
+public enum PolluterSearch {
+    DELTA_DEBUG,        // Delta debug over the whole prefix
+    SINGLE_POLLUTER,    // Assume a single polluter and bisect the prefix, falling back to delta debugging if it is not confirmed
+    HIERARCHICAL,       // Delta debug over blocks of tests from the same test class first, then over the tests in the remaining blocks
+    LOCALITY,           // Check the last 1, 2, 4, ... test classes before the dependent test first, delta debugging over the first
+                        // that is enough (or over the whole prefix if none are)
+    ONE_BY_ONE          // Run each test alone before the dependent test (dt.minimizer.polluters.one_by_one), not a value for dt.minimizer.search
+}
@@ -2,7 +2,6 @@ package edu.illinois.cs.dt.tools.minimizer;
 
 import com.google.gson.Gson;
 import com.reedoei.eunomia.collections.ListEx;
-import com.reedoei.eunomia.collections.ListUtil;
 import com.reedoei.eunomia.data.caching.FileCache;
 import com.reedoei.eunomia.io.files.FileUtil;
 import com.reedoei.eunomia.util.RuntimeThrower;
@@ -10,8 +9,17 @@ import com.reedoei.eunomia.util.Util;
 import edu.illinois.cs.dt.tools.minimizer.cleaner.CleanerData;
 import edu.illinois.cs.dt.tools.minimizer.cleaner.CleanerFinder;
 import edu.illinois.cs.dt.tools.minimizer.cleaner.CleanerGroup;
+import edu.illinois.cs.dt.tools.utility.DependentTestOrder;
 import edu.illinois.cs.dt.tools.utility.MD5;
 import edu.illinois.cs.dt.tools.utility.OperationTime;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
+import edu.illinois.cs.dt.tools.utility.TestOrder;
+import edu.illinois.cs.dt.tools.utility.TestRunStore;
+import edu.illinois.cs.dt.tools.utility.deltadebug.DeltaDebugBudget;
+import edu.illinois.cs.dt.tools.utility.deltadebug.DeltaDebugMetrics;
+import edu.illinois.cs.dt.tools.utility.deltadebug.MemoizingSubsetCache;
+import edu.illinois.cs.dt.tools.utility.deltadebug.MonotonicSubsetCache;
+import edu.illinois.cs.dt.tools.utility.deltadebug.SubsetCache;
 import edu.illinois.cs.testrunner.configuration.Configuration;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.data.results.TestRunResult;
@@ -23,7 +31,16 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 public class TestMinimizer extends FileCache<MinimizeTestsResult> {
     protected final List<String> testOrder;
@@ -33,12 +50,39 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
     protected final SmartRunner runner;
     protected final List<String> fullTestOrder;
     private final boolean ONE_BY_ONE_POLLUTERS = Configuration.config().getProperty("dt.minimizer.polluters.one_by_one", false);
+    private static final int ONE_BY_ONE_PARALLELISM = Configuration.config().getProperty("dt.minimizer.polluters.one_by_one.parallelism", 1);
+    // Above one, assumes running tests together cannot hide a polluter among them (e.g., no cleaner runs after it)
+    private static final int ONE_BY_ONE_GROUP_SIZE =
+            Math.max(1, Configuration.config().getProperty("dt.minimizer.polluters.one_by_one.group_size", 1));
     private static final boolean FIND_ALL = Configuration.config().getProperty("dt.find_all", true);
+    private static final boolean CACHE_SUBSETS = Configuration.config().getProperty("dt.deltadebug.cache", true);
+    // Infer the results of subsets from the results of their subsets and supersets. Only turn on for suites with no
+    // cleaners, since a cleaner after a polluter makes an order not lead to the expected value even with the polluter
+    private static final boolean MONOTONIC = Configuration.config().getProperty("dt.deltadebug.cache.monotonic", false);
+    private static final int PARALLELISM = Configuration.config().getProperty("dt.deltadebug.parallelism", 1);
+    private static final boolean WEIGHTED = Configuration.config().getProperty("dt.deltadebug.weighted", true);
+    private static final PolluterSearch SEARCH =
+            PolluterSearch.valueOf(Configuration.config().getProperty("dt.minimizer.search", "delta_debug").toUpperCase());
 
     protected final Path path;
+    private final String hash;
 
     protected TestRunResult expectedRun;
 
+    // Shared across all rounds of looking for polluters, since the same prefixes are often checked again
+    private final SubsetCache<String> subsetCache = MONOTONIC ? new MonotonicSubsetCache<>() : new MemoizingSubsetCache<>();
+
+    // Number of test runs done to find the polluters (not including verifying them), also counted from worker threads
+    private final AtomicInteger runs = new AtomicInteger();
+
+    // Shared across all rounds of looking for polluters, so one dependent test cannot take longer than the budget
+    private final DeltaDebugBudget budget = DeltaDebugBudget.fromConfig();
+
+    private int sessions;   // Number of delta debugging sessions so far, to tell apart their metrics
+
+    // Polluters found and delta debugging state so far, in case the minimizer needs to continue after being stopped
+    private final MinimizerCheckpoint checkpoint;
+
     private void debug(final String str) {
         TestPluginPlugin.mojo().getLog().debug(str);
     }
@@ -50,19 +94,23 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
     public TestMinimizer(final List<String> testOrder, final SmartRunner runner, final String dependentTest) {
         // Only take the tests that come before the dependent test
         this.fullTestOrder = testOrder;
-        this.testOrder = testOrder.contains(dependentTest) ? ListUtil.before(testOrder, dependentTest) : testOrder;
+        this.testOrder = TestOrder.of(testOrder).before(dependentTest);
         this.dependentTest = dependentTest;
 
         this.runner = runner;
+        // So orders that hang time out based on how long they are expected to take
+        TestDurations.profile().seed(runner);
 
-        // Run in given order to determine what the result should be.
+        // Run in given order to determine what the result should be (unless it was already run on the same code).
         debug("Getting expected result for: " + dependentTest);
-        this.expectedRun = runResult(testOrder);
+        this.expectedRun = storedRunResult(testOrder);
         this.expected = expectedRun.results().get(dependentTest).result();
         this.isolationResult = result(Collections.singletonList(dependentTest));
         debug("Expected: " + expected);
 
-        this.path = MinimizerPathManager.minimized(dependentTest, MD5.hashOrder(expectedRun.testOrder()), expected);
+        this.hash = MD5.hashOrder(expectedRun.testOrder());
+        this.path = MinimizerPathManager.minimized(dependentTest, hash, expected);
+        this.checkpoint = MinimizerCheckpoint.load(MinimizerPathManager.checkpoint(dependentTest, hash, expected, "polluters"));
     }
 
     public Result expected() {
@@ -76,12 +124,30 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
             actualOrder.add(dependentTest);
         }
 
-        return runner.runList(actualOrder).get();
+        runs.incrementAndGet();
+        return TestDurations.profile().record(runner.runList(actualOrder)).get();
+    }
+
+    private TestRunResult storedRunResult(final List<String> order) {
+        final List<String> actualOrder = new ArrayList<>(order);
+
+        if (!actualOrder.contains(dependentTest)) {
+            actualOrder.add(dependentTest);
+        }
+
+        final Optional<TestRunResult> stored = TestRunStore.store().lookup(actualOrder);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        final TestRunResult testRunResult = runResult(actualOrder);
+        TestRunStore.store().record(testRunResult);
+        return testRunResult;
     }
 
     private Result result(final List<String> order) {
         try {
-            return runResult(order).results().get(dependentTest).result();
+            return runResult(DependentTestOrder.of(order, dependentTest)).results().get(dependentTest).result();
         } catch (java.lang.IllegalThreadStateException e) {
              // indicates timeout
             return Result.SKIPPED;
@@ -94,30 +160,53 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
             info("Running minimizer for: " + dependentTest + " (expected result in this order: " + expected + ")");
 
             // Keep going as long as there are tests besides dependent test to run
-            List<PolluterData> polluters = new ArrayList<>();
-            int index = 0;
+            // Start from the polluters already found, if continuing from a checkpoint
+            List<PolluterData> polluters = new ArrayList<>(checkpoint.polluters());
+            int index = polluters.size();
+            final List<String> foundDeps = new ArrayList<>();
+            for (final PolluterData polluter : polluters) {
+                foundDeps.addAll(polluter.deps());
+            }
+            if (!polluters.isEmpty() || checkpoint.runs() > 0) {
+                info("Continuing minimizer for " + dependentTest + " from checkpoint, with " + polluters.size() + " polluter(s) already found");
+                runs.addAndGet(checkpoint.runs());
+            }
 
-            if (ONE_BY_ONE_POLLUTERS) {
+            if (!FIND_ALL && !polluters.isEmpty()) {
+                info("Already found a polluter (dt.find_all is set to false)");
+            } else if (ONE_BY_ONE_POLLUTERS) {
                 info("Getting all polluters (dt.minimizer.polluters.one_by_one is set to true)");
-                for (List<String> order : getSingleTests(fullTestOrder, dependentTest)) {
-                    index = getPolluters(order, startTime, polluters, index);
+                final List<String> candidates = new ArrayList<>();
+                for (final String test : fullTestOrder) {
+                    if (!test.equalsIgnoreCase(dependentTest) && !foundDeps.contains(test)) {
+                        candidates.add(test);
+                    }
+                }
+
+                final long scanStartTime = System.currentTimeMillis();
+                for (final String polluter : singlePolluters(candidates)) {
+                    addPolluter(Collections.singletonList(polluter), PolluterSearch.ONE_BY_ONE, true,
+                            new OperationTime(scanStartTime, System.currentTimeMillis()), startTime, polluters, index);
+                    index++;
                 }
             } else {
                 final List<String> order = new ArrayList<>(testOrder);
+                order.removeAll(foundDeps);
                 getPolluters(order, startTime, polluters, index);
             }
 
             return polluters;
         }, (polluters, time) -> {
+            info("Minimizer for " + dependentTest + " used " + runs + " test runs to find " + polluters.size() + " polluter(s).");
             final MinimizeTestsResult minimizedResult =
-                    new MinimizeTestsResult(time, expectedRun, expected, dependentTest, polluters, FlakyClass.OD);
+                    new MinimizeTestsResult(time, expectedRun, expected, dependentTest, polluters, FlakyClass.OD, runs.get());
 
             // If the verifying does not work, then mark this test as NOD
             boolean verifyStatus = minimizedResult.verify(runner);
             if (verifyStatus) {
                 return minimizedResult;
             } else {
-                return new MinimizeTestsResult(time, expectedRun, expected, dependentTest, polluters, FlakyClass.NOD);
+                return minimizedResult.nod();
             }
         });
     }
@@ -125,15 +214,30 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
     private int getPolluters(List<String> order, long startTime, List<PolluterData> polluters, int index) throws Exception {
         // order can be the prefix + dependentTest or just the prefix. All current uses of this method are using it as just prefix
         while (!order.isEmpty()) {
-            // First need to check if remaining tests in order still lead to expected value
-            if (result(order) != expected) {
+            if (budget.exhausted()) {
+                info("Out of budget, not looking for more polluters for " + dependentTest);
+                break;
+            }
+
+            // Earlier rounds may have already run tests from the remaining order that still lead to the expected value
+            // (e.g., other polluters checked at the same time when delta debugging in parallel), so start from those
+            final Optional<List<String>> knownValid = CACHE_SUBSETS ? subsetCache.smallestValidWithin(order) : Optional.empty();
+            final List<String> start;
+            if (knownValid.isPresent()) {
+                info("Continuing from " + knownValid.get().size() + " of the remaining tests, already known to match expected");
+                start = knownValid.get();
+            } else if (!remainingMatchExpected(order)) {
                 info("Remaining tests no longer match expected: " + order);
                 break;
+            } else {
+                start = withoutKnownClean(order);
             }
 
             final OperationTime[] operationTime = new OperationTime[1];
+            final PolluterSearch[] search = new PolluterSearch[1];
+            final boolean[] minimal = new boolean[1];
             final List<String> deps = OperationTime.runOperation(() -> {
-                return run(new ArrayList<>(order));
+                return run(new ArrayList<>(start), search, minimal);
             }, (foundDeps, time) -> {
                 operationTime[0] = time;
                 return foundDeps;
@@ -144,51 +248,170 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
                 break;
             }
 
-            info("Ran minimizer, dependencies: " + deps);
-            double elapsedSeconds = System.currentTimeMillis() / 1000.0 - startTime / 1000.0;
-            if (index == 0) {
-                info("FIRST POLLUTER: Found first polluter " + deps + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
-            } else {
-                info("POLLUTER: Found polluter " + deps + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
-            }
-
-            // Only look for cleaners if the order is not passing; in case of minimizing for setter don't need to look for cleaner
-            CleanerData cleanerData;
-            if (!expected.equals(Result.PASS)) {
-                cleanerData = new CleanerFinder(runner, dependentTest, deps, expected, isolationResult, expectedRun.testOrder()).find();
-            } else {
-                cleanerData = new CleanerData(dependentTest, expected, isolationResult, new ListEx<CleanerGroup>());
+            info("Ran minimizer (" + search[0] + "), dependencies: " + deps);
+            if (!minimal[0]) {
+                info("Minimizer ran out of budget, dependencies may not be minimal");
             }
+            addPolluter(deps, search[0], minimal[0], operationTime[0], startTime, polluters, index);
 
-            polluters.add(new PolluterData(operationTime[0], index, deps, cleanerData));
-  
             // If not configured to find all, since one is found now, can stop looking
             if (!FIND_ALL) {
                 break;
             }
 
             // A better implementation would remove one by one and not assume polluter groups are mutually exclusive
+            // What earlier rounds learned is kept in the subset cache, so later rounds do not start over
             order.removeAll(deps);  // Look for other deps besides the ones already found
             index++;
         }
         return index;
     }
 
-    // Returns a list where each element is test from order and the dependent test
-    private List<List<String>> getSingleTests(final List<String> order, String dependentTest) {
-        List<List<String>> singleTests = new ArrayList<>();
-        for (String test : order) {
-            if (test.equalsIgnoreCase(dependentTest)) {
-                continue;
+    // Check if the tests in order still lead to the expected value, without running them if the cache already knows
+    private boolean remainingMatchExpected(final List<String> order) {
+        if (!CACHE_SUBSETS) {
+            return result(order) == expected;
+        }
+
+        final Optional<Boolean> known = subsetCache.lookup(order);
+        if (known.isPresent()) {
+            return known.get();
+        }
+
+        final boolean matches = result(order) == expected;
+        subsetCache.record(order, matches);
+        return matches;
+    }
+
+    private void addPolluter(final List<String> deps, final PolluterSearch search, final boolean minimal,
+                             final OperationTime operationTime, final long startTime,
+                             final List<PolluterData> polluters, final int index) throws Exception {
+        double elapsedSeconds = System.currentTimeMillis() / 1000.0 - startTime / 1000.0;
+        if (index == 0) {
+            info("FIRST POLLUTER: Found first polluter " + deps + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
+        } else {
+            info("POLLUTER: Found polluter " + deps + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
+        }
+
+        // Only look for cleaners if the order is not passing; in case of minimizing for setter don't need to look for cleaner
+        CleanerData cleanerData;
+        if (!expected.equals(Result.PASS)) {
+            cleanerData = new CleanerFinder(runner, dependentTest, deps, expected, isolationResult, expectedRun.testOrder()).find();
+        } else {
+            cleanerData = new CleanerData(dependentTest, expected, isolationResult, new ListEx<CleanerGroup>());
+        }
+
+        final PolluterData polluterData = new PolluterData(operationTime, index, deps, cleanerData, search, minimal);
+        polluters.add(polluterData);
+        checkpoint.polluterFound(polluterData, runs.get());
+    }
+
+    // Tests from candidates that lead to the expected result when run alone before the dependent test, in candidate order
+    // With a group size above one, tests are first run together in groups, and only groups that lead to the expected
+    // result are split (in halves) until single tests are left
+    private List<String> singlePolluters(final List<String> candidates) throws Exception {
+        final TestMinimizerDeltaDebugger debugger = new TestMinimizerDeltaDebugger(this.runner, this.dependentTest, this.expected);
+        final ExecutorService workers = ONE_BY_ONE_PARALLELISM > 1 ? Executors.newFixedThreadPool(ONE_BY_ONE_PARALLELISM) : null;
+
+        final Set<String> polluters = new HashSet<>();
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i += ONE_BY_ONE_GROUP_SIZE) {
+            groups.add(new ArrayList<>(candidates.subList(i, Math.min(candidates.size(), i + ONE_BY_ONE_GROUP_SIZE))));
+        }
+
+        try {
+            while (!groups.isEmpty()) {
+                if (budget.exhausted()) {
+                    info("Out of budget, not running more tests one by one for " + dependentTest);
+                    break;
+                }
+
+                final List<Boolean> valid = checkGroups(debugger, groups, workers);
+                final List<List<String>> nextGroups = new ArrayList<>();
+                for (int i = 0; i < groups.size(); i++) {
+                    final List<String> group = groups.get(i);
+                    if (!valid.get(i)) {
+                        continue;
+                    }
+
+                    if (group.size() == 1) {
+                        polluters.add(group.get(0));
+                    } else {
+                        nextGroups.add(new ArrayList<>(group.subList(0, group.size() / 2)));
+                        nextGroups.add(new ArrayList<>(group.subList(group.size() / 2, group.size())));
+                    }
+                }
+                groups = nextGroups;
+            }
+        } finally {
+            if (workers != null) {
+                workers.shutdown();
             }
-            singleTests.add(new ArrayList<>(Collections.singletonList(test)));
         }
 
-        return singleTests;
+        return candidates.stream().filter(polluters::contains).collect(Collectors.toList());
+    }
+
+    // Whether each group leads to the expected result, checking the groups at the same time if there are workers
+    private List<Boolean> checkGroups(final TestMinimizerDeltaDebugger debugger, final List<List<String>> groups,
+                                      final ExecutorService workers) throws Exception {
+        final List<Callable<Boolean>> checks = new ArrayList<>();
+        for (final List<String> group : groups) {
+            checks.add(() -> {
+                final Optional<Boolean> known = CACHE_SUBSETS ? subsetCache.lookup(group) : Optional.empty();
+                if (known.isPresent()) {
+                    return known.get();
+                }
+
+                final boolean valid = debugger.checkValid(group);
+                if (CACHE_SUBSETS) {
+                    subsetCache.record(group, valid);
+                }
+                runs.incrementAndGet();
+                return valid;
+            });
+        }
+
+        final List<Boolean> valid = new ArrayList<>();
+        if (workers == null) {
+            for (final Callable<Boolean> check : checks) {
+                valid.add(check.call());
+            }
+        } else {
+            for (final Future<Boolean> check : workers.invokeAll(checks)) {
+                valid.add(check.get());
+            }
+        }
+        return valid;
     }
 
-    private List<String> run(List<String> order) throws Exception {
+    // Tests that earlier rounds found to not lead to the expected value cannot be polluters on their own, so if the order
+    // without them still leads to the expected value, only delta debug over the rest (others are found in later rounds)
+    // Only worth the extra run if it at least halves the tests to delta debug over
+    // Relies on monotonicity: with a cleaner C, [P, C] is not valid even though the polluter P alone is
+    private List<String> withoutKnownClean(final List<String> order) {
+        if (!CACHE_SUBSETS || !MONOTONIC) {
+            return order;
+        }
+
+        final Set<String> clean = subsetCache.invalidAlone();
+        final List<String> pruned = order.stream().filter(test -> !clean.contains(test)).collect(Collectors.toList());
+        if (pruned.isEmpty() || pruned.size() * 2 > order.size()) {
+            return order;
+        }
+
+        if (remainingMatchExpected(pruned)) {
+            info("Skipping " + (order.size() - pruned.size()) + " tests already known to not be polluters on their own");
+            return pruned;
+        }
+        return order;
+    }
+
+    // Sets search[0] to how the dependencies were actually found, and minimal[0] to whether they are proven minimal
+    private List<String> run(List<String> order, PolluterSearch[] search, boolean[] minimal) throws Exception {
         final List<String> deps = new ArrayList<>();
+        search[0] = PolluterSearch.DELTA_DEBUG;
+        minimal[0] = true;
 
         if (order.isEmpty()) {
             debug("Order is empty, so it is already minimized!");
@@ -196,11 +419,77 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
         }
 
         TestMinimizerDeltaDebugger debugger = new TestMinimizerDeltaDebugger(this.runner, this.dependentTest, this.expected);
-        deps.addAll(debugger.deltaDebug(order, 2));
+        if (CACHE_SUBSETS) {
+            debugger.withCache(subsetCache);
+        }
+        debugger.withParallelism(PARALLELISM);
+        debugger.withBudget(budget);
+        // Continue delta debugging from the checkpoint, if it was in progress over these tests
+        final Optional<List<String>> remaining = checkpoint.remaining(order);
+        debugger.withCheckpoint((current, n) -> checkpoint.deltaDebugging(current, n, runs.get() + debugger.getChecks(), search[0]));
+
+        final String session = "polluters-" + sessions++;
+        final DeltaDebugMetrics metrics = new DeltaDebugMetrics(session);
+        debugger.withListener(metrics);
+        // Split by expected running time, since a few slow tests can take longer than many fast ones
+        if (WEIGHTED && TestDurations.profile().knowsAny(order)) {
+            debugger.withWeight(TestDurations.profile()::expected);
+        }
+
+        if (remaining.isPresent()) {
+            // Keep reporting the search that was in progress (e.g., delta debugging over the tests found by locality)
+            search[0] = checkpoint.search();
+            info("Continuing delta debugging (" + search[0] + ") from checkpoint with " + remaining.get().size() + " tests remaining");
+            if (search[0] == PolluterSearch.HIERARCHICAL) {
+                deps.addAll(debugger.hierarchicalDeltaDebug(remaining.get(), TestMinimizer::testClass));
+            } else {
+                deps.addAll(debugger.deltaDebug(remaining.get(), checkpoint.granularity()));
+            }
+        } else {
+            if (SEARCH == PolluterSearch.SINGLE_POLLUTER) {
+                final Optional<String> polluter = debugger.bisect(order);
+                if (polluter.isPresent()) {
+                    search[0] = PolluterSearch.SINGLE_POLLUTER;
+                    deps.add(polluter.get());
+                } else {
+                    info("Could not confirm a single polluter for " + dependentTest + ", falling back to delta debugging");
+                }
+            }
+            if (SEARCH == PolluterSearch.LOCALITY) {
+                // Polluters are usually in the same test class as the dependent test or a class run shortly before it
+                final Optional<List<String>> nearest = debugger.nearestValidSuffix(order, TestMinimizer::testClass);
+                if (nearest.isPresent()) {
+                    search[0] = PolluterSearch.LOCALITY;
+                    deps.addAll(debugger.deltaDebug(nearest.get(), 2));
+                } else {
+                    info("No polluters for " + dependentTest + " near it in the order, falling back to delta debugging");
+                }
+            }
+            if (SEARCH == PolluterSearch.HIERARCHICAL) {
+                search[0] = PolluterSearch.HIERARCHICAL;
+                deps.addAll(debugger.hierarchicalDeltaDebug(order, TestMinimizer::testClass));
+            } else if (deps.isEmpty()) {
+                deps.addAll(debugger.deltaDebug(order, 2));
+            }
+        }
+
+        minimal[0] = debugger.isMinimal();
+        runs.addAndGet(debugger.getChecks());
+        debug("Delta debugging iterations: " + debugger.getIterations() + ", test runs: " + debugger.getChecks() +
+              ", cache hits: " + debugger.getCacheHits() + ", cache misses: " + debugger.getCacheMisses() +
+              ", runs avoided by inference so far: " + subsetCache.inferred());
+        metrics.strategy(search[0].name());
+        debug("Delta debugging metrics for " + metrics);
+        metrics.save(MinimizerPathManager.deltaDebugMetrics(dependentTest, hash, expected, session));
 
         return deps;
     }
 
+    private static String testClass(final String testName) {
+        final int lastDot = testName.lastIndexOf('.');
+        return lastDot < 0 ? testName : testName.substring(0, lastDot);
+    }
+
     public String getDependentTest() {
         return dependentTest;
     }
@@ -222,6 +511,7 @@ public class TestMinimizer extends FileCache<MinimizeTestsResult> {
         new RuntimeThrower<>(() -> {
             Files.createDirectories(path().getParent());
             Files.write(path(), new Gson().toJson(get()).getBytes());
+            checkpoint.delete();
 
             return null;
         }).run();
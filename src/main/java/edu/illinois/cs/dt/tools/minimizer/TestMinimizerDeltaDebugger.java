@@ -1,21 +1,23 @@
 package edu.illinois.cs.dt.tools.minimizer;
 
+import edu.illinois.cs.dt.tools.utility.DependentTestOrder;
+import edu.illinois.cs.dt.tools.utility.RunnerPool;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
 import edu.illinois.cs.dt.tools.utility.deltadebug.DeltaDebugger;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.data.results.TestRunResult;
 import edu.illinois.cs.testrunner.runner.SmartRunner;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class TestMinimizerDeltaDebugger extends DeltaDebugger<String> {
 
-    private final SmartRunner runner;
+    private final RunnerPool runners;
     private final String dependentTest;
     private final Result expected;
 
     public TestMinimizerDeltaDebugger(SmartRunner runner, String dependentTest, Result expected) {
-        this.runner = runner;
+        this.runners = new RunnerPool(runner);
         this.dependentTest = dependentTest;
         this.expected = expected;
     }
@@ -35,13 +37,9 @@ public class TestMinimizerDeltaDebugger extends DeltaDebugger<String> {
     }
 
     private TestRunResult runResult(final List<String> tests) {
-        final List<String> actualOrder = new ArrayList<>(tests);
+        final List<String> actualOrder = DependentTestOrder.of(tests, this.dependentTest);
 
-        if (!actualOrder.contains(this.dependentTest)) {
-            actualOrder.add(this.dependentTest);
-        }
-
-        return this.runner.runList(actualOrder).get();
+        return TestDurations.profile().record(this.runners.runner().runList(actualOrder)).get();
     }
 
 }
@@ -0,0 +1,115 @@
+package edu.illinois.cs.dt.tools.minimizer.cleaner;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.reedoei.eunomia.util.RuntimeThrower;
+import edu.illinois.cs.testrunner.mavenplugin.TestPluginPlugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Cleaner group candidates already tried for one dependent test and its deps, saved as the cleaner finder goes, so if
+// it is stopped partway the candidates do not need to be run again the next time
+// The file is a log with one line per candidate tried, so recording one only appends a line instead of writing the
+// whole file again. If the process dies partway through a line, only that line is lost
+public class CleanerCheckpoint {
+    private final Path path;
+    private final Set<List<String>> cleanerGroups = new HashSet<>();
+    private final Set<List<String>> notCleanerGroups = new HashSet<>();
+
+    private CleanerCheckpoint(final Path path) {
+        this.path = path;
+    }
+
+    public static CleanerCheckpoint load(final Path path) {
+        final CleanerCheckpoint checkpoint = new CleanerCheckpoint(path);
+        if (!Files.exists(path)) {
+            return checkpoint;
+        }
+
+        final List<String> lines = new RuntimeThrower<>(() -> Files.readAllLines(path)).run();
+        for (int i = 0; i < lines.size(); i++) {
+            final Entry entry;
+            try {
+                entry = new Gson().fromJson(lines.get(i), Entry.class);
+            } catch (JsonParseException e) {
+                // Only the last line can be partly written, otherwise the file is not a checkpoint we can trust
+                // (it is dropped from the file, so the next candidate recorded does not end up on the same line)
+                if (i == lines.size() - 1) {
+                    TestPluginPlugin.info("Ignoring partly written last candidate in cleaner checkpoint " + path);
+                    checkpoint.rewrite(lines.subList(0, i));
+                    break;
+                }
+                TestPluginPlugin.info("Cleaner checkpoint " + path + " is corrupt, starting over: " + e.getMessage());
+                checkpoint.delete();
+                return new CleanerCheckpoint(path);
+            }
+
+            if (entry != null && entry.candidate != null) {
+                (entry.cleanerGroup ? checkpoint.cleanerGroups : checkpoint.notCleanerGroups).add(entry.candidate);
+            }
+        }
+        return checkpoint;
+    }
+
+    public synchronized int size() {
+        return cleanerGroups.size() + notCleanerGroups.size();
+    }
+
+    // Whether the candidate was found to be a cleaner group, or empty if it was not tried yet
+    public synchronized Optional<Boolean> tried(final List<String> candidate) {
+        if (cleanerGroups.contains(candidate)) {
+            return Optional.of(true);
+        } else if (notCleanerGroups.contains(candidate)) {
+            return Optional.of(false);
+        }
+        return Optional.empty();
+    }
+
+    public synchronized void record(final List<String> candidate, final boolean isCleanerGroup) {
+        final List<String> copy = new ArrayList<>(candidate);
+        if (!(isCleanerGroup ? cleanerGroups : notCleanerGroups).add(copy)) {
+            return;
+        }
+
+        final String line = new Gson().toJson(new Entry(copy, isCleanerGroup)) + System.lineSeparator();
+        new RuntimeThrower<>(() -> {
+            Files.createDirectories(path.getParent());
+            Files.write(path, line.getBytes(), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+            return null;
+        }).run();
+    }
+
+    private void rewrite(final List<String> lines) {
+        new RuntimeThrower<>(() -> {
+            final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, lines);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            return null;
+        }).run();
+    }
+
+    // Once the cleaners are found, they are saved as part of the minimized result, so the checkpoint is no longer needed
+    public synchronized void delete() {
+        new RuntimeThrower<>(() -> Files.deleteIfExists(path)).run();
+    }
+
+    private static class Entry {
+        private final List<String> candidate;
+        private final boolean cleanerGroup;
+
+        private Entry(final List<String> candidate, final boolean cleanerGroup) {
+            this.candidate = candidate;
+            this.cleanerGroup = cleanerGroup;
+        }
+    }
+}
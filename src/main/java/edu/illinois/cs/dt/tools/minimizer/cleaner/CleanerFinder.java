@@ -1,22 +1,29 @@
 package edu.illinois.cs.dt.tools.minimizer.cleaner;
 
 import com.reedoei.eunomia.collections.ListEx;
-import com.reedoei.eunomia.collections.StreamUtil;
-import edu.illinois.cs.dt.tools.detection.DetectorPathManager;
-import edu.illinois.cs.dt.tools.runner.RunnerPathManager;
+import edu.illinois.cs.dt.tools.minimizer.MinimizerPathManager;
+import edu.illinois.cs.dt.tools.utility.DependentTestOrder;
+import edu.illinois.cs.dt.tools.utility.MD5;
 import edu.illinois.cs.dt.tools.utility.OperationTime;
-import edu.illinois.cs.dt.tools.utility.TestRunParser;
+import edu.illinois.cs.dt.tools.utility.RunnerPool;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
+import edu.illinois.cs.dt.tools.utility.TestOrder;
+import edu.illinois.cs.dt.tools.utility.TestRunIndex;
 import edu.illinois.cs.dt.tools.utility.TimeManager;
+import edu.illinois.cs.dt.tools.utility.deltadebug.DeltaDebugBudget;
+import edu.illinois.cs.dt.tools.utility.deltadebug.DeltaDebugMetrics;
+import edu.illinois.cs.dt.tools.utility.deltadebug.MemoizingSubsetCache;
+import edu.illinois.cs.dt.tools.utility.deltadebug.SubsetCache;
 import edu.illinois.cs.testrunner.configuration.Configuration;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.data.results.TestRunResult;
 import edu.illinois.cs.testrunner.mavenplugin.TestPluginPlugin;
+import edu.illinois.cs.testrunner.runner.Runner;
 import edu.illinois.cs.testrunner.runner.SmartRunner;
 import org.codehaus.plexus.util.StringUtils;
 import scala.util.Try;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -24,6 +31,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,7 +46,7 @@ public class CleanerFinder {
     private final List<String> deps;
     private final Result expected;
     private final Result isolationResult;
-    private final List<String> testOrder;
+    private final TestOrder testOrder;
 
     // Some fields to help with computing time to first cleaner and outputing in log
     private long startTime;
@@ -43,16 +56,37 @@ public class CleanerFinder {
     private int startingTryingEveryTestConfirmed = -1;
 
     private static final boolean FIND_ALL = Configuration.config().getProperty("dt.find_all", true);
+    private static final boolean CACHE_SUBSETS = Configuration.config().getProperty("dt.deltadebug.cache", true);
+    private static final int PARALLELISM = Configuration.config().getProperty("dt.deltadebug.parallelism", 1);
+    private static final boolean WEIGHTED = Configuration.config().getProperty("dt.deltadebug.weighted", true);
+    // Number of cleaner group candidates to check at the same time
+    private static final int CANDIDATE_PARALLELISM = Configuration.config().getProperty("dt.diagnosis.cleaners.parallelism", 1);
+    // Look for cleaners among all the tests by group testing, instead of trying each test as a cleaner by itself
+    private static final boolean GROUP_TESTING = Configuration.config().getProperty("dt.diagnosis.cleaners.group_testing", true);
+
+    // Cleaner groups share the same deps and dependent test, so subsets checked while minimizing one group are reused for the others
+    // Only exact subsets are remembered: whether a group cleans says nothing about its subsets or supersets, since
+    // another test in them may pollute again (so dt.deltadebug.cache.monotonic does not apply to cleaners)
+    private final SubsetCache<String> subsetCache = new MemoizingSubsetCache<>();
+
+    // Shared by minimizing all the cleaner groups, once it runs out the remaining groups are kept as they are found
+    private final DeltaDebugBudget budget = DeltaDebugBudget.fromConfig();
+
+    // Candidates already tried, in case the cleaner finder needs to continue after being stopped
+    private final CleanerCheckpoint checkpoint;
 
     public CleanerFinder(final SmartRunner runner,
                          final String dependentTest, final List<String> deps,
                          final Result expected, final Result isolationResult, final List<String> testOrder) {
         this.runner = runner;
+        TestDurations.profile().seed(runner);
         this.dependentTest = dependentTest;
         this.deps = deps;
         this.expected = expected;
         this.isolationResult = isolationResult;
-        this.testOrder = testOrder;
+        this.testOrder = TestOrder.of(testOrder);
+        this.checkpoint = CleanerCheckpoint.load(MinimizerPathManager.checkpoint(dependentTest, MD5.hashOrder(testOrder), expected,
+                                                                                 "cleaners-" + MD5.hashOrder(deps)));
     }
 
     /**
@@ -78,9 +112,14 @@ public class CleanerFinder {
             return new CleanerData(dependentTest,
                     expected, isolationResult, new ListEx<>());
         } else {
-            final ListEx<String> originalOrder = new ListEx<>(Files.readAllLines(DetectorPathManager.originalOrderPath()));
+            final TestOrder originalOrder = TestOrder.original();
             this.startTime = System.currentTimeMillis();
-            return summarizeCleanerGroups(makeCleanerData(findCleanerGroups(originalOrder)));
+            if (checkpoint.size() > 0) {
+                TestPluginPlugin.info("Continuing from checkpoint, with " + checkpoint.size() + " cleaner group candidates already tried.");
+            }
+            final CleanerData cleanerData = summarizeCleanerGroups(makeCleanerData(findCleanerGroups(originalOrder)));
+            checkpoint.delete();
+            return cleanerData;
         }
     }
 
@@ -89,9 +128,30 @@ public class CleanerFinder {
         cleanerGroups.addAll(cleanerGroupsMap.keySet());
         Set<ListEx<String>> seenGroups = new HashSet<>();
         ListEx<CleanerGroup> minimizedCleanerGroups = new ListEx<>();
+        int avoided = 0;
         for (int i = 0; i < cleanerGroups.size(); i++) {
-            ListEx<String> cleanerGroup = cleanerGroups.get(i);
-            CleanerGroup minimizedCleanerGroup = minimalCleanerGroup(i, cleanerGroup);
+            final ListEx<String> cleanerGroup = cleanerGroups.get(i);
+            ListEx<String> toMinimize = cleanerGroup;
+
+            // Minimizing a group that contains a cleaner we already have would most likely just find that cleaner again
+            final Optional<CleanerGroup> known = minimizedCleanerGroups.stream()
+                    .filter(c -> containsInOrder(cleanerGroup, c.cleanerTests()))
+                    .findFirst();
+            if (known.isPresent()) {
+                // Only if the rest of the group is a cleaner group by itself can there be a different cleaner in it
+                final ListEx<String> rest = new ListEx<>(cleanerGroup);
+                rest.removeAll(known.get().cleanerTests());
+                if (!FIND_ALL || rest.isEmpty() || !isCleanerGroup(rest, runner)) {
+                    TestPluginPlugin.debug("Skipping minimizing cleaner group " + i + ", which contains the known cleaner " + known.get());
+                    avoided++;
+                    continue;
+                }
+                TestPluginPlugin.debug("Cleaner group " + i + " contains the known cleaner " + known.get() +
+                                       ", minimizing only the rest of the group");
+                toMinimize = rest;
+            }
+
+            CleanerGroup minimizedCleanerGroup = minimalCleanerGroup(i, toMinimize);
             // Skip any group we have already minimized
             if (seenGroups.contains(minimizedCleanerGroup.cleanerTests())) {
                 continue;
@@ -105,12 +165,28 @@ public class CleanerFinder {
                 }
             }
         }
+        if (avoided > 0) {
+            TestPluginPlugin.info("Avoided minimizing " + avoided + " of " + cleanerGroups.size() +
+                                  " cleaner groups, since they contain a known cleaner.");
+        }
         final CleanerData cleanerData = new CleanerData(dependentTest, expected, isolationResult, minimizedCleanerGroups);
         TestPluginPlugin.info(dependentTest + " has " + cleanerData.cleaners().size() + " cleaners: " + cleanerData.cleaners());
         return cleanerData;
     }
 
-    private Map<ListEx<String>, TimeManager> findCleanerGroups(final ListEx<String> originalOrder) throws Exception {
+    // Whether all the tests of the cleaner are in the group, in the same order (not necessarily next to each other),
+    // which is the only way minimizing the group could end in that cleaner
+    private static boolean containsInOrder(final List<String> group, final List<String> cleaner) {
+        int found = 0;
+        for (int i = 0; i < group.size() && found < cleaner.size(); i++) {
+            if (group.get(i).equals(cleaner.get(found))) {
+                found++;
+            }
+        }
+        return found == cleaner.size();
+    }
+
+    private Map<ListEx<String>, TimeManager> findCleanerGroups(final TestOrder originalOrder) throws Exception {
         final TimeManager[] timeToFindCandidates = new TimeManager[1];
 
         final ListEx<ListEx<String>> candidates =
@@ -123,6 +199,9 @@ public class CleanerFinder {
         TestPluginPlugin.info("Found " + candidates.size() + " cleaner group candidates.");
 
         final Map<ListEx<String>, TimeManager> cleanerGroups = filterCleanerGroups(candidates, timeToFindCandidates[0]);
+        if (GROUP_TESTING && (FIND_ALL || cleanerGroups.isEmpty())) {
+            groupTestCleaners(originalOrder, cleanerGroups, timeToFindCandidates[0]);
+        }
         TestPluginPlugin.info("Found " + cleanerGroups.size() + " cleaner groups.");
 
         return cleanerGroups;
@@ -144,6 +223,10 @@ public class CleanerFinder {
 
     private Map<ListEx<String>, TimeManager> filterCleanerGroups(final ListEx<ListEx<String>> candidates,
                                                                    final TimeManager findCandidateTime) throws Exception {
+        if (CANDIDATE_PARALLELISM > 1) {
+            return filterCleanerGroupsInParallel(candidates, findCandidateTime);
+        }
+
         final Map<ListEx<String>, TimeManager> result = new LinkedHashMap<>();
 
         for (int i = 0; i < candidates.size(); i++) {
@@ -152,25 +235,14 @@ public class CleanerFinder {
 
             TimeManager[] time = new TimeManager[1];
             boolean isCleanerGroup =
-                    OperationTime.runOperation(() -> isCleanerGroup(candidate), (cleanGroupResult, checkTime) -> {
+                    OperationTime.runOperation(() -> isCleanerGroup(candidate, runner), (cleanGroupResult, checkTime) -> {
                         time[0] = findCandidateTime.manageTime(checkTime);
                         return cleanGroupResult;
                     }
             );
 
             if (isCleanerGroup) {
-                // Recording if in mode trying every test when checking if is cleaner group
-                if (i >= this.startingTryingEveryTest && this.startingTryingEveryTestConfirmed < 0) {
-                    this.startingTryingEveryTestConfirmed = result.size();
-                }
-                result.put(candidate, new TimeManager(time[0]));
-                double elapsedSeconds = System.currentTimeMillis() / 1000.0 - startTime / 1000.0;
-                // If this is the first one, log out the result
-                if (result.size() == 1) {
-                    TestPluginPlugin.info("FIRST CLEANER: Found first cleaner " + candidate + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
-                } else {
-                    TestPluginPlugin.info("CLEANER: Found cleaner " + candidate + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
-                }
+                addCleanerGroup(result, candidate, time[0], i >= this.startingTryingEveryTest, System.currentTimeMillis());
 
                 // If not configured to find all, since one is found now, can stop looking
                 if (!FIND_ALL) {
@@ -184,30 +256,238 @@ public class CleanerFinder {
         return result;
     }
 
+    // Same as above, but checking up to CANDIDATE_PARALLELISM candidates at the same time, each worker with its own runner
+    // The checks are still used in the order of the candidates, so the cleaner groups found (and which one is first) are
+    // the same as checking one at a time. When not finding all, candidates after the first cleaner group found so far
+    // are not checked at all
+    private Map<ListEx<String>, TimeManager> filterCleanerGroupsInParallel(final ListEx<ListEx<String>> candidates,
+                                                                           final TimeManager findCandidateTime) throws Exception {
+        final Map<ListEx<String>, TimeManager> result = new LinkedHashMap<>();
+
+        final RunnerPool runners = new RunnerPool(runner);
+        final AtomicInteger firstFound = new AtomicInteger(Integer.MAX_VALUE);
+        final ExecutorService workers = Executors.newFixedThreadPool(CANDIDATE_PARALLELISM);
+        final List<Future<CandidateCheck>> checks = new ArrayList<>();
+        try {
+            for (int i = 0; i < candidates.size(); i++) {
+                final int index = i;
+                final ListEx<String> candidate = candidates.get(i);
+                checks.add(workers.submit(() -> {
+                    if (!FIND_ALL && index > firstFound.get()) {
+                        return null;
+                    }
+
+                    return OperationTime.runOperation(() -> isCleanerGroup(candidate, runners.runner()), (cleanGroupResult, checkTime) -> {
+                        final TimeManager time;
+                        synchronized (findCandidateTime) {
+                            time = new TimeManager(findCandidateTime.manageTime(checkTime));
+                        }
+                        if (cleanGroupResult) {
+                            firstFound.accumulateAndGet(index, Math::min);
+                        }
+                        return new CandidateCheck(cleanGroupResult, time, System.currentTimeMillis());
+                    });
+                }));
+            }
+
+            for (int i = 0; i < checks.size(); i++) {
+                System.out.printf("\rTrying group %d of %d (found %d so far)", i, candidates.size(), result.size());
+
+                final CandidateCheck check = checks.get(i).get();
+                if (check != null && check.isCleanerGroup) {
+                    addCleanerGroup(result, candidates.get(i), check.time, i >= this.startingTryingEveryTest, check.checkedAt);
+
+                    // If not configured to find all, since one is found now, can stop looking
+                    if (!FIND_ALL) {
+                        break;
+                    }
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            // Do not start any remaining checks (ones already running finish on their own)
+            checks.forEach(f -> f.cancel(false));
+            workers.shutdown();
+        }
+
+        System.out.print("\r");
+
+        return result;
+    }
+
+    private static class CandidateCheck {
+        private final boolean isCleanerGroup;
+        private final TimeManager time;
+        private final long checkedAt;
+
+        private CandidateCheck(final boolean isCleanerGroup, final TimeManager time, final long checkedAt) {
+            this.isCleanerGroup = isCleanerGroup;
+            this.time = time;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    private void addCleanerGroup(final Map<ListEx<String>, TimeManager> result, final ListEx<String> candidate,
+                                 final TimeManager time, final boolean tryingEveryTest, final long foundAt) {
+        // Recording if in mode trying every test when checking if is cleaner group
+        if (tryingEveryTest && this.startingTryingEveryTestConfirmed < 0) {
+            this.startingTryingEveryTestConfirmed = result.size();
+        }
+        result.put(candidate, new TimeManager(time));
+        double elapsedSeconds = foundAt / 1000.0 - startTime / 1000.0;
+        // If this is the first one, log out the result
+        if (result.size() == 1) {
+            TestPluginPlugin.info("FIRST CLEANER: Found first cleaner " + candidate + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
+        } else {
+            TestPluginPlugin.info("CLEANER: Found cleaner " + candidate + " for dependent test " + dependentTest + " in " + elapsedSeconds + " seconds.");
+        }
+    }
+
+    /**
+     * Instead of trying every test as a cleaner by itself, try many at once as [deps, group, dependent test] and only
+     * split the groups that make the dependent test get its isolation result, so the number of runs grows with the
+     * number of cleaners (times the log of the number of tests) instead of with the number of tests.
+     *
+     * A group can fail to clean even though it has a cleaner, if a test after the cleaner pollutes again. So a group
+     * that does not clean is still split if it pollutes by itself ([group, dependent test] gets the expected result).
+     */
+    private void groupTestCleaners(final TestOrder originalOrder, final Map<ListEx<String>, TimeManager> result,
+                                   final TimeManager findCandidateTime) throws Exception {
+        final Set<String> excluded = new HashSet<>(deps);
+        excluded.add(dependentTest);
+        final ListEx<String> tests = new ListEx<>(originalOrder.excluding(excluded));
+
+        TestPluginPlugin.info("Group testing " + tests.size() + " tests for cleaners of " + dependentTest);
+        final int[] runs = new int[1];
+        groupTest(tests, result, findCandidateTime, runs);
+        TestPluginPlugin.info("Group testing for cleaners of " + dependentTest + " took " + runs[0] + " test runs");
+    }
+
+    // Whether any cleaner group was found in the group
+    private boolean groupTest(final ListEx<String> group, final Map<ListEx<String>, TimeManager> result,
+                              final TimeManager findCandidateTime, final int[] runs) throws Exception {
+        if (!FIND_ALL && !result.isEmpty()) {
+            return false;
+        }
+
+        final boolean cleans = timed(() -> cleansAsGroup(group, runs), findCandidateTime);
+        if (!cleans && !timed(() -> pollutesAsGroup(group, runs), findCandidateTime)) {
+            // Neither cleans nor could be hiding a cleaner, so there are no cleaners in it
+            return false;
+        }
+
+        if (group.size() == 1) {
+            if (cleans && !result.containsKey(group)) {
+                addCleanerGroup(result, group, findCandidateTime, true, System.currentTimeMillis());
+            }
+            return cleans;
+        }
+
+        final int mid = group.size() / 2;
+        boolean found = groupTest(new ListEx<>(group.subList(0, mid)), result, findCandidateTime, runs);
+        found |= groupTest(new ListEx<>(group.subList(mid, group.size())), result, findCandidateTime, runs);
+
+        // Neither half cleans by itself, so cleaning needs tests from both (minimizing the group later finds which)
+        if (cleans && !found && (FIND_ALL || result.isEmpty())) {
+            if (!result.containsKey(group)) {
+                addCleanerGroup(result, group, findCandidateTime, true, System.currentTimeMillis());
+            }
+            return true;
+        }
+
+        return found;
+    }
+
+    private boolean timed(final Callable<Boolean> check, final TimeManager findCandidateTime) throws Exception {
+        return OperationTime.runOperation(check, (checkResult, checkTime) -> {
+            findCandidateTime.manageTime(checkTime);
+            return checkResult;
+        });
+    }
+
+    // Like isCleanerGroup, but counting the runs done (the groups tried by group testing are never in the cache yet)
+    private boolean cleansAsGroup(final ListEx<String> group, final int[] runs) {
+        final Optional<Boolean> tried = checkpoint.tried(group);
+        if (tried.isPresent()) {
+            return tried.get();
+        }
+
+        runs[0]++;
+        final boolean cleans = hasResult(runner, DependentTestOrder.of(deps, group, dependentTest), isolationResult);
+        if (CACHE_SUBSETS) {
+            subsetCache.record(group, cleans);
+        }
+        checkpoint.record(group, cleans);
+        return cleans;
+    }
+
+    private boolean pollutesAsGroup(final ListEx<String> group, final int[] runs) {
+        runs[0]++;
+        return hasResult(runner, DependentTestOrder.of(group, dependentTest), expected);
+    }
+
+    private boolean hasResult(final Runner runner, final List<String> tests, final Result result) {
+        final Try<TestRunResult> testRunResultTry = TestDurations.profile().record(runner.runList(tests));
+
+        return testRunResultTry.isSuccess() &&
+               testRunResultTry.get().results().get(dependentTest).result().equals(result);
+    }
+
     /**
      * @param cleanerCandidate The tests that make up the cleaner group
      * @return if the candidate satisfies the criteria above (changes the results)
      */
-    private boolean isCleanerGroup(final ListEx<String> cleanerCandidate) {
-        final List<String> tests = new ArrayList<>(deps);
-        tests.addAll(cleanerCandidate);
-        tests.add(dependentTest);
+    private boolean isCleanerGroup(final ListEx<String> cleanerCandidate, final Runner runner) {
+        // Tried before this cleaner finder was stopped partway, so no need to run it again
+        final Optional<Boolean> tried = checkpoint.tried(cleanerCandidate);
+        if (tried.isPresent()) {
+            return tried.get();
+        }
 
-        final Try<TestRunResult> testRunResultTry = runner.runList(tests);
+        // Same check as the one done when minimizing cleaner groups, so share the results
+        if (CACHE_SUBSETS) {
+            final Optional<Boolean> known = subsetCache.lookup(cleanerCandidate);
+            if (known.isPresent()) {
+                return known.get();
+            }
+        }
 
-        return testRunResultTry.isSuccess() &&
-               testRunResultTry.get().results().get(dependentTest).result().equals(isolationResult);
+        final boolean isCleanerGroup = hasResult(runner, DependentTestOrder.of(deps, cleanerCandidate, dependentTest), isolationResult);
+        if (CACHE_SUBSETS) {
+            subsetCache.record(cleanerCandidate, isCleanerGroup);
+        }
+        checkpoint.record(cleanerCandidate, isCleanerGroup);
+        return isCleanerGroup;
     }
 
     /**
      * @param cleanerGroup The list of tests that is a known, but not minimal, cleaner group
-     * @return A minimal cleaner group
+     * @return A minimal cleaner group, or the smallest one found before running out of budget
      */
     private CleanerGroup minimalCleanerGroup(final int i, final ListEx<String> cleanerGroup) {
         TestPluginPlugin.info("Minimizing cleaner group " + i + ": " +
                 StringUtils.abbreviate(String.valueOf(cleanerGroup), 500));
         CleanerGroupDeltaDebugger debugger = new CleanerGroupDeltaDebugger(this.runner, this.dependentTest, this.deps, this.isolationResult);
-        return new CleanerGroup(dependentTest, cleanerGroup.size(), new ListEx<>(debugger.deltaDebug(cleanerGroup, 2)), i);
+        if (CACHE_SUBSETS) {
+            debugger.withCache(subsetCache);
+        }
+        debugger.withParallelism(PARALLELISM);
+        debugger.withBudget(budget);
+        final String session = "cleaners-" + MD5.hashOrder(deps) + "-" + i;
+        final DeltaDebugMetrics metrics = new DeltaDebugMetrics(session);
+        debugger.withListener(metrics);
+        if (WEIGHTED && TestDurations.profile().knowsAny(cleanerGroup)) {
+            debugger.withWeight(TestDurations.profile()::expected);
+        }
+        final CleanerGroup minimized = new CleanerGroup(dependentTest, cleanerGroup.size(), new ListEx<>(debugger.deltaDebug(cleanerGroup, 2)), i,
+                                                        debugger.isMinimal());
+        TestPluginPlugin.debug("Delta debugging iterations: " + debugger.getIterations() +
+                               ", cache hits: " + debugger.getCacheHits() + ", cache misses: " + debugger.getCacheMisses() +
+                               (debugger.isMinimal() ? "" : ", ran out of budget"));
+        TestPluginPlugin.debug("Delta debugging metrics for " + metrics);
+        metrics.save(MinimizerPathManager.deltaDebugMetrics(dependentTest, MD5.hashOrder(testOrder.tests()), expected, session));
+        return minimized;
     }
 
     /**
@@ -215,17 +495,23 @@ public class CleanerFinder {
      *         A cleaner group is considered "better" if they come between the polluter(s)
      *         and the dependent test does not have the expected result in that order
      */
-    private Stream<ListEx<String>> cleanerCandidates(final ListEx<String> originalOrder) {
+    private Stream<ListEx<String>> cleanerCandidates(final TestOrder originalOrder) {
         if (deps.isEmpty()) {
             return Stream.empty();
         }
 
+        final List<ListEx<String>> likelyCandidates = Stream.concat(highLikelihoodCleanerGroups(), Stream.of(possibleCleaners(originalOrder)))
+                .collect(Collectors.toList());
         // Get the number of elements done before considering every test as a possible cleaner
-        Stream<ListEx<String>> intermediate = Stream.concat(highLikelihoodCleanerGroups(), Stream.of(possibleCleaners(originalOrder)));
-        this.startingTryingEveryTest = intermediate.collect(Collectors.toList()).size();
+        this.startingTryingEveryTest = likelyCandidates.size();
+
+        if (GROUP_TESTING) {
+            // Every test is considered as a possible cleaner afterwards by group testing instead
+            return likelyCandidates.stream();
+        }
 
         return Stream.concat(
-                Stream.concat(highLikelihoodCleanerGroups(), Stream.of(possibleCleaners(originalOrder))),
+                likelyCandidates.stream(),
                 // Consider each test as a possible cleaner
                 originalOrder.stream().map(ListEx::fromArray));
 //                // Consider each possible cleaner individually as well, in case there are other polluters
@@ -237,17 +523,20 @@ public class CleanerFinder {
      *         in an arbitrary order (currently it's the order from the original order excluding dependencies,
      *         the dependent test itself, and all tests in between the two)
      */
-    private ListEx<String> possibleCleaners(final ListEx<String> originalOrder) {
-        return originalOrder.filter(this::possibleCleaner);
-    }
-
-    private boolean possibleCleaner(final String testName) {
-        final Optional<Integer> idx = new ListEx<>(testOrder).infixIndex(deps);
+    private ListEx<String> possibleCleaners(final TestOrder originalOrder) {
+        final Optional<Integer> idx = testOrder.infixIndex(deps);
+        if (!idx.isPresent()) {
+            return new ListEx<>();
+        }
         final int dtIdx = testOrder.indexOf(dependentTest);
 
-        final int testIdx = testOrder.indexOf(testName);
+        return new ListEx<>(originalOrder.stream()
+                .filter(testName -> possibleCleaner(idx.get(), dtIdx, testOrder.indexOf(testName)))
+                .collect(Collectors.toList()));
+    }
 
-        return idx.isPresent() && (testIdx > dtIdx || testIdx < idx.get());
+    private static boolean possibleCleaner(final int depsIdx, final int dtIdx, final int testIdx) {
+        return testIdx > dtIdx || testIdx < depsIdx;
     }
 
     /**
@@ -256,27 +545,23 @@ public class CleanerFinder {
      * @return likely cleaner groups
      */
     private Stream<ListEx<String>> highLikelihoodCleanerGroups() {
-        try {
-            return new TestRunParser(RunnerPathManager.testRuns()).testResults()
-                    .mapToStream((output, result) -> result)
-                    .flatMap(this::likelyCleanerCandidate);
-        } catch (IOException ignored) {}
-
-        return Stream.empty();
+        // Only the runs with the deps next to each other can have such a group, so look those up instead of every run
+        final TestRunIndex index = TestRunIndex.index().update();
+        final Map<String, Integer> dtPositions = index.firstPositions(dependentTest);
+        return index.infixPositions(deps).entrySet().stream()
+                .flatMap(depPosition -> likelyCleanerCandidate(index.run(depPosition.getKey()), depPosition.getValue(),
+                        dtPositions.getOrDefault(depPosition.getKey(), -1)));
     }
 
-    private Stream<ListEx<String>> likelyCleanerCandidate(final TestRunResult testRunResult) {
-        return StreamUtil.fromOpt(new ListEx<>(testRunResult.testOrder()).infixIndex(deps))
-                .flatMap(depIndex -> {
-                    final int dtIdx = testRunResult.testOrder().indexOf(dependentTest);
+    private Stream<ListEx<String>> likelyCleanerCandidate(final TestRunIndex.IndexedRun run, final int depIndex, final int dtIdx) {
+        final Result result = run.result(dependentTest);
 
-                    // If the dt comes after the dependencies and yet there result is still unexpected,
-                    // this group is a cleaner group (modulo non-determinism)
-                    if (dtIdx > depIndex && !testRunResult.results().get(dependentTest).result().equals(expected)) {
-                        return Stream.of(new ListEx<>(testRunResult.testOrder().subList(depIndex + deps.size(), dtIdx)));
-                    }
+        // If the dt comes after the dependencies and yet there result is still unexpected,
+        // this group is a cleaner group (modulo non-determinism)
+        if (dtIdx > depIndex && result != null && !result.equals(expected)) {
+            return Stream.of(new ListEx<>(run.order().subList(depIndex + deps.size(), dtIdx)));
+        }
 
-                    return Stream.empty();
-                });
+        return Stream.empty();
     }
 }
@@ -3,28 +3,35 @@ package edu.illinois.cs.dt.tools.minimizer.cleaner;
 import java.util.Objects;
 
 import com.reedoei.eunomia.collections.ListEx;
+import edu.illinois.cs.dt.tools.utility.DependentTestOrder;
 import edu.illinois.cs.dt.tools.utility.OperationTime;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
 import edu.illinois.cs.dt.tools.utility.TimeManager;
+import edu.illinois.cs.dt.tools.utility.Verification;
 import edu.illinois.cs.testrunner.configuration.Configuration;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.runner.SmartRunner;
 
 public class CleanerGroup {
-    private static final int VERIFY_COUNT = Configuration.config().getProperty("dt.diagnosis.cleaners.verify_count", 1);
+    // At most how many times to run with (and without) the cleaners to confirm the results
+    private static final int VERIFY_COUNT = Configuration.config().getProperty("dt.diagnosis.cleaners.verify_count", Verification.MAX_RUNS);
 
     private final String dependentTest;
     private final int originalSize;
     private final ListEx<String> cleanerTests;
     private final int orderFound; // order # this cleaner group was found; used to identify the first cleaner group found
+    private final boolean truncated; // true if minimizing ran out of budget, so the group may not be minimal (false in older results)
     private TimeManager time;
+    private double confidence;  // Confidence that confirming the group had reliable results (0 if it was never confirmed)
 
 
     public CleanerGroup(final String dependentTest, final int originalSize, final ListEx<String> cleanerTests,
-                        int orderFound) {
+                        int orderFound, final boolean minimal) {
         this.dependentTest = dependentTest;
         this.originalSize = originalSize;
         this.cleanerTests = cleanerTests;
         this.orderFound = orderFound;
+        this.truncated = !minimal;
     }
 
     public int originalSize() {
@@ -37,32 +44,23 @@ public class CleanerGroup {
 
         return OperationTime.runOperation(() -> {
 
-            final ListEx<String> withCleanerOrder = new ListEx<>(deps);
-            withCleanerOrder.addAll(cleanerTests);
-            withCleanerOrder.add(dependentTest);
+            final ListEx<String> withCleanerOrder = new ListEx<>(DependentTestOrder.of(deps, cleanerTests, dependentTest));
 
-            final ListEx<String> withoutCleanerOrder = new ListEx<>(deps);
-            withoutCleanerOrder.add(dependentTest);
+            final ListEx<String> withoutCleanerOrder = new ListEx<>(DependentTestOrder.of(deps, dependentTest));
 
-            for (int i = 0; i < VERIFY_COUNT; i++) {
-                System.out.printf("Confirming cleaner group (%d of %d) for %s: %s%n", i, VERIFY_COUNT, dependentTest, cleanerTests);
-
-                if (confirmRun("with", runner, isolationResult, withCleanerOrder)) {
-                    return false;
-                }
-
-                if (confirmRun("without", runner, expected, withoutCleanerOrder)) {
-                    return false;
-                }
-
-                final Result withoutCleaner = runner.runList(withoutCleanerOrder).get().results().get(dependentTest).result();
-
-                if (!withoutCleaner.equals(expected)) {
-                    return false;
-                }
+            // The dependent test must reliably get its isolation result with the cleaners and the expected result without
+            System.out.printf("Confirming cleaner group for %s: %s%n", dependentTest, cleanerTests);
+            final Verification<Boolean> with =
+                    Verification.confirm(() -> confirmRun("with", runner, isolationResult, withCleanerOrder), VERIFY_COUNT);
+            this.confidence = with.confidence();
+            if (!with.confirmed()) {
+                return false;
             }
 
-            return true;
+            final Verification<Boolean> without =
+                    Verification.confirm(() -> confirmRun("without", runner, expected, withoutCleanerOrder), VERIFY_COUNT);
+            this.confidence = Math.min(with.confidence(), without.confidence());
+            return without.confirmed();
         }, (confirmResult, confirmTime) -> {
             this.time = findFilterCandidateTime.manageTime(confirmTime);
             return confirmResult;
@@ -74,21 +72,29 @@ public class CleanerGroup {
                                final Result desiredRes, final ListEx<String> order) {
         System.out.printf("Expected %s cleaner result: %s, got: ", runType, desiredRes);
 
-        final Result res = runner.runList(order).get().results().get(dependentTest).result();
+        final Result res = TestDurations.profile().record(runner.runList(order)).get().results().get(dependentTest).result();
 
         System.out.println(res);
 
-        return !res.equals(desiredRes);
+        return res.equals(desiredRes);
     }
 
     public TimeManager time() {
         return time;
     }
 
+    public double confidence() {
+        return confidence;
+    }
+
     public int orderFound() {
         return orderFound;
     }
 
+    public boolean minimal() {
+        return !truncated;
+    }
+
     public String dependentTest() {
         return dependentTest;
     }
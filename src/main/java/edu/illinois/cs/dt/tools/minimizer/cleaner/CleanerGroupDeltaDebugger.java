@@ -1,23 +1,25 @@
 package edu.illinois.cs.dt.tools.minimizer.cleaner;
 
+import edu.illinois.cs.dt.tools.utility.DependentTestOrder;
+import edu.illinois.cs.dt.tools.utility.RunnerPool;
+import edu.illinois.cs.dt.tools.utility.TestDurations;
 import edu.illinois.cs.dt.tools.utility.deltadebug.DeltaDebugger;
 import edu.illinois.cs.testrunner.data.results.Result;
 import edu.illinois.cs.testrunner.data.results.TestRunResult;
 import edu.illinois.cs.testrunner.runner.SmartRunner;
 
-import java.util.ArrayList;
 import java.util.List;
 import scala.util.Try;
 
 public class CleanerGroupDeltaDebugger extends DeltaDebugger<String> {
 
-    private final SmartRunner runner;
+    private final RunnerPool runners;
     private final String dependentTest;
     private final List<String> deps;
     private final Result isolationResult;
 
     public CleanerGroupDeltaDebugger(SmartRunner runner, String dependentTest, List<String> deps, Result isolationResult) {
-        this.runner = runner;
+        this.runners = new RunnerPool(runner);
         this.dependentTest = dependentTest;
         this.deps = deps;
         this.isolationResult = isolationResult;
@@ -25,11 +27,9 @@ public class CleanerGroupDeltaDebugger extends DeltaDebugger<String> {
 
     @Override
     public boolean checkValid(List<String> cleanerCandidate) {
-        final List<String> tests = new ArrayList<>(this.deps);
-        tests.addAll(cleanerCandidate);
-        tests.add(this.dependentTest);
+        final List<String> tests = DependentTestOrder.of(this.deps, cleanerCandidate, this.dependentTest);
 
-        final Try<TestRunResult> testRunResultTry = this.runner.runList(tests);
+        final Try<TestRunResult> testRunResultTry = TestDurations.profile().record(this.runners.runner().runList(tests));
 
         return testRunResultTry.isSuccess() &&
                testRunResultTry.get().results().get(this.dependentTest).result().equals(this.isolationResult);
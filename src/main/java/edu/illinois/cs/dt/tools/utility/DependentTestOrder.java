@@ -0,0 +1,30 @@
+package edu.illinois.cs.dt.tools.utility;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Orders run only to get the result of the dependent test
+// Tests after the dependent test cannot change its result, so they are never put in the order to run
+public class DependentTestOrder {
+    // The tests up to the first time the dependent test is run, with the dependent test added at the end if not there
+    public static List<String> of(final List<String> tests, final String dependentTest) {
+        final List<String> order = new ArrayList<>();
+
+        for (final String test : tests) {
+            order.add(test);
+            if (test.equals(dependentTest)) {
+                return order;
+            }
+        }
+
+        order.add(dependentTest);
+        return order;
+    }
+
+    // The tests, then the other tests, then the dependent test, stopping at the dependent test like above
+    public static List<String> of(final List<String> tests, final List<String> otherTests, final String dependentTest) {
+        final List<String> order = new ArrayList<>(tests);
+        order.addAll(otherTests);
+        return of(order, dependentTest);
+    }
+}
@@ -45,6 +45,8 @@ public class MvnCommands {
 
         final Invoker invoker = new DefaultInvoker();
         final InvocationResult result = invoker.execute(request);
+        // Even a failed build may have compiled some classes again, so stored test runs may no longer match the code
+        TestRunStore.store().codeChanged();
 
         if (result.getExitCode() != 0) {
             // Print out the contents of the output/error streamed out during evocation, if not suppressed
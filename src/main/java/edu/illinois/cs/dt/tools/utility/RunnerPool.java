@@ -0,0 +1,75 @@
+package edu.illinois.cs.dt.tools.utility;
+
+import edu.illinois.cs.dt.tools.runner.InstrumentingSmartRunner;
+import edu.illinois.cs.testrunner.data.framework.TestFramework;
+import edu.illinois.cs.testrunner.runner.Runner;
+import edu.illinois.cs.testrunner.util.ExecutionInfo;
+import edu.illinois.cs.testrunner.util.ExecutionInfoBuilder;
+import scala.collection.immutable.Stream;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+// Hands out a separate runner to each worker thread, so tests can be run concurrently without the runners sharing state
+// The thread that created the pool keeps using the original runner
+public class RunnerPool {
+    private final Runner runner;
+    private final Thread owner;
+    private final ThreadLocal<Runner> workerRunners;
+
+    public RunnerPool(final Runner runner) {
+        this.runner = runner;
+        this.owner = Thread.currentThread();
+        this.workerRunners = ThreadLocal.withInitial(() -> workerRunner(runner));
+    }
+
+    // A runner like the given one, but with its own test info store: a smart runner updates its store (which is not
+    // thread safe) after every run, so runners used from different threads must not share one
+    public static InstrumentingSmartRunner workerRunner(final Runner runner) {
+        // Only a smart runner's store is reused by fromRunner, any other runner gets a new one
+        final InstrumentingSmartRunner workerRunner = InstrumentingSmartRunner.fromRunner(new Settings(runner));
+        TestDurations.profile().seed(workerRunner);
+        return workerRunner;
+    }
+
+    public Runner runner() {
+        if (Thread.currentThread() == owner) {
+            return runner;
+        }
+        return workerRunners.get();
+    }
+
+    // Only the settings of a runner, which are all that is needed to make a new one
+    private static class Settings implements Runner {
+        private final Runner runner;
+
+        private Settings(final Runner runner) {
+            this.runner = runner;
+        }
+
+        @Override
+        public Path outputPath() {
+            return runner.outputPath();
+        }
+
+        @Override
+        public String classpath() {
+            return runner.classpath();
+        }
+
+        @Override
+        public TestFramework framework() {
+            return runner.framework();
+        }
+
+        @Override
+        public Map<String, String> environment() {
+            return runner.environment();
+        }
+
+        @Override
+        public ExecutionInfo execution(final Stream<String> testNames, final ExecutionInfoBuilder executionInfoBuilder) {
+            return runner.execution(testNames, executionInfoBuilder);
+        }
+    }
+}
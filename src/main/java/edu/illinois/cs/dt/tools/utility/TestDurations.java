@@ -0,0 +1,192 @@
+package edu.illinois.cs.dt.tools.utility;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.reedoei.eunomia.io.files.FileUtil;
+import com.reedoei.eunomia.util.RuntimeThrower;
+import edu.illinois.cs.testrunner.configuration.Configuration;
+import edu.illinois.cs.testrunner.data.results.Result;
+import edu.illinois.cs.testrunner.data.results.TestResult;
+import edu.illinois.cs.testrunner.data.results.TestRunResult;
+import edu.illinois.cs.testrunner.runner.FlakyTestException;
+import edu.illinois.cs.testrunner.runner.Runner;
+import edu.illinois.cs.testrunner.runner.SmartRunner;
+import edu.illinois.cs.testrunner.runner.TestInfoStore;
+import scala.util.Try;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// Profile of how long each test is expected to take, built up from the results of every test run
+// Kept in the cache, so later runs of the tools start from what earlier runs learned
+public class TestDurations {
+    public static final Path DURATIONS = Paths.get("test-durations.json");
+    // Give runners the expected times of tests they have not run yet, so their timeouts are based on those times
+    private static final boolean ADAPTIVE_TIMEOUTS = Configuration.config().getProperty("dt.timeout.adaptive", true);
+    // Tests are seeded as run right after this (not a real test), so the seeded runs never match real orders run
+    private static final String SEED_TEST = "dt.seeded.duration";
+    // Save the profile after this many test runs are recorded (and when the JVM exits), rather than after every run
+    private static final int SAVE_INTERVAL = Configuration.config().getProperty("dt.durations.save_interval", 50);
+
+    // One profile per module, since each module has its own cache
+    private static final Map<Path, TestDurations> profiles = new HashMap<>();
+
+    public static synchronized TestDurations profile() {
+        return profiles.computeIfAbsent(PathManager.path(DURATIONS), TestDurations::new);
+    }
+
+    private static class Duration {
+        private double total;   // Total time in seconds over all runs of the test
+        private int runs;
+
+        private double average() {
+            return total / runs;
+        }
+    }
+
+    private final Path path;
+    private final Map<String, Duration> durations;
+    private final Set<TestInfoStore> seeded = Collections.newSetFromMap(new WeakHashMap<>());
+    private double defaultDuration = -1;    // Expected time for tests never run before, -1 until computed
+    private int unsaved;                    // Number of runs recorded since the profile was last saved
+    private int version;                    // Number of times the profile was saved, so older saves never win
+    private int savedVersion;
+    private final Object saveLock = new Object();
+
+    private TestDurations(final Path path) {
+        this.path = path;
+
+        if (Files.exists(path)) {
+            this.durations = new RuntimeThrower<>(() ->
+                    new Gson().<Map<String, Duration>>fromJson(FileUtil.readFile(path), new TypeToken<Map<String, Duration>>(){}.getType())).run();
+        } else {
+            this.durations = new HashMap<>();
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flush));
+    }
+
+    // Add the times of all tests in the run (if it ran at all), returning the same run to keep using it
+    public Try<TestRunResult> record(final Try<TestRunResult> testRunResult) {
+        if (testRunResult.isSuccess()) {
+            record(testRunResult.get());
+        }
+        return testRunResult;
+    }
+
+    public void record(final TestRunResult testRunResult) {
+        final String json;
+        final int jsonVersion;
+        synchronized (this) {
+            testRunResult.results().forEach((testName, result) -> {
+                final Duration duration = durations.computeIfAbsent(testName, name -> new Duration());
+                duration.total += result.time();
+                duration.runs++;
+            });
+            defaultDuration = -1;
+
+            if (++unsaved < SAVE_INTERVAL) {
+                return;
+            }
+            json = snapshot();
+            jsonVersion = version;
+        }
+
+        // Writing the file does not need the profile, so other threads can keep recording meanwhile
+        save(json, jsonVersion);
+    }
+
+    // Save whatever was recorded since the profile was last saved
+    public void flush() {
+        final String json;
+        final int jsonVersion;
+        synchronized (this) {
+            if (unsaved == 0) {
+                return;
+            }
+            json = snapshot();
+            jsonVersion = version;
+        }
+
+        save(json, jsonVersion);
+    }
+
+    // Average time of the test over all its runs, or the average over all tests if it was never run
+    public synchronized double expected(final String testName) {
+        final Duration duration = durations.get(testName);
+        if (duration != null) {
+            return duration.average();
+        }
+
+        if (defaultDuration < 0) {
+            defaultDuration = durations.values().stream().mapToDouble(Duration::average).average().orElse(1.0);
+        }
+        return defaultDuration;
+    }
+
+    // A smart runner times out an order after a very long default time if it has not seen every test in it run yet
+    // (e.g., when the runs were done in an earlier Maven invocation, or were reused instead of run again), which makes a
+    // hanging order take hours to be given up on. Telling it how long each test is expected to take makes it time out
+    // based on the expected time of the order instead (see testplugin.runner.smart.timeout.* to tune how)
+    public synchronized void seed(final Runner runner) {
+        if (!ADAPTIVE_TIMEOUTS || !(runner instanceof SmartRunner)) {
+            return;
+        }
+
+        final TestInfoStore infoStore = ((SmartRunner) runner).info();
+        if (!seeded.add(infoStore)) {
+            return;
+        }
+
+        durations.forEach((testName, duration) -> {
+            final Map<String, TestResult> results = new HashMap<>();
+            results.put(testName, new TestResult(testName, Result.PASS, duration.average(), new StackTraceElement[0]));
+
+            final List<String> order = Arrays.asList(SEED_TEST, testName);
+            try {
+                infoStore.update(order, new TestRunResult(SEED_TEST, order, results, new HashMap<>()));
+            } catch (FlakyTestException ignored) {
+                // Cannot happen, since the seeded orders are never run
+            }
+        });
+    }
+
+    public synchronized boolean knowsAny(final Collection<String> testNames) {
+        return testNames.stream().anyMatch(durations::containsKey);
+    }
+
+    private String snapshot() {
+        unsaved = 0;
+        version++;
+        return new Gson().toJson(durations);
+    }
+
+    // Written to a temporary file that then replaces the profile, so dying partway never leaves half a profile
+    private void save(final String json, final int jsonVersion) {
+        synchronized (saveLock) {
+            if (jsonVersion <= savedVersion) {
+                return;
+            }
+            savedVersion = jsonVersion;
+
+            new RuntimeThrower<>(() -> {
+                Files.createDirectories(path.getParent());
+                final Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+                Files.write(temp, json.getBytes());
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                return null;
+            }).run();
+        }
+    }
+}
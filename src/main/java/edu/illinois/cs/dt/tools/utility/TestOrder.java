@@ -0,0 +1,211 @@
+package edu.illinois.cs.dt.tools.utility;
+
+import com.reedoei.eunomia.util.RuntimeThrower;
+import edu.illinois.cs.dt.tools.detection.DetectorPathManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+// An immutable order of tests, indexed so that finding where a test (or a run of tests) is does not scan the order
+// Test names are interned, since the same names show up in many orders and test runs
+public class TestOrder {
+    // The original order of each module, only read again if the file changed since it was last read or saved
+    private static final Map<Path, TestOrder> originalOrders = new HashMap<>();
+
+    public static synchronized TestOrder original() throws IOException {
+        final Path path = DetectorPathManager.originalOrderPath();
+        final TestOrder cached = originalOrders.get(path);
+        if (cached != null && Files.exists(path) && lastModified(path).equals(cached.lastModified)) {
+            return cached;
+        }
+
+        final TestOrder original = new TestOrder(Files.readAllLines(path), lastModified(path));
+        originalOrders.put(path, original);
+        return original;
+    }
+
+    // Writes the new original order, keeping it so it does not need to be read again
+    // (the file may be written again within the resolution of its modified time, so that cannot be relied on here)
+    public static synchronized TestOrder saveOriginal(final List<String> tests) throws IOException {
+        final Path path = DetectorPathManager.originalOrderPath();
+        Files.write(path, tests);
+        final TestOrder original = new TestOrder(tests, lastModified(path));
+        originalOrders.put(path, original);
+        return original;
+    }
+
+    public static TestOrder of(final List<String> tests) {
+        return tests instanceof TestOrder.View ? ((View) tests).order() : new TestOrder(tests, null);
+    }
+
+    private static FileTime lastModified(final Path path) {
+        return new RuntimeThrower<>(() -> Files.getLastModifiedTime(path)).run();
+    }
+
+    private final List<String> tests;
+    private final Map<String, int[]> positions;     // Every position of each test, in increasing order
+    private final Map<List<String>, Optional<Integer>> infixes = new ConcurrentHashMap<>();
+    private final FileTime lastModified;            // Only set for original orders
+
+    private TestOrder(final List<String> tests, final FileTime lastModified) {
+        final List<String> interned = new ArrayList<>(tests.size());
+        final Map<String, List<Integer>> found = new HashMap<>();
+        for (int i = 0; i < tests.size(); i++) {
+            final String test = tests.get(i).intern();
+            interned.add(test);
+            found.computeIfAbsent(test, t -> new ArrayList<>(1)).add(i);
+        }
+
+        this.tests = new View(Collections.unmodifiableList(interned));
+        this.positions = new HashMap<>(found.size() * 2);
+        found.forEach((test, at) -> this.positions.put(test, at.stream().mapToInt(Integer::intValue).toArray()));
+        this.lastModified = lastModified;
+    }
+
+    // Unmodifiable, and can be turned back into this order without indexing it again
+    public List<String> tests() {
+        return tests;
+    }
+
+    public Stream<String> stream() {
+        return tests.stream();
+    }
+
+    public int size() {
+        return tests.size();
+    }
+
+    public boolean isEmpty() {
+        return tests.isEmpty();
+    }
+
+    public boolean contains(final String test) {
+        return positions.containsKey(test);
+    }
+
+    // Position of the first time the test is in the order, or -1 if it is not
+    public int indexOf(final String test) {
+        final int[] at = positions.get(test);
+        return at == null ? -1 : at[0];
+    }
+
+    // Position where the tests first show up next to each other in this order, in the same order
+    // Only the positions of the first test need to be tried, and results are kept since the same infix (e.g., the
+    // dependencies of a dependent test) tends to be searched for many times
+    public Optional<Integer> infixIndex(final List<String> infix) {
+        if (infix.isEmpty()) {
+            return Optional.of(0);
+        }
+
+        return infixes.computeIfAbsent(new ArrayList<>(infix), i -> {
+            final int[] starts = positions.get(i.get(0));
+            if (starts == null) {
+                return Optional.empty();
+            }
+
+            for (final int start : starts) {
+                if (start + i.size() <= tests.size() && tests.subList(start, start + i.size()).equals(i)) {
+                    return Optional.of(start);
+                }
+            }
+            return Optional.empty();
+        });
+    }
+
+    // Views of part of the order, without copying it
+    public List<String> subList(final int fromIndex, final int toIndex) {
+        return tests.subList(fromIndex, toIndex);
+    }
+
+    // The tests before the first time the test is in the order (all the tests if it is not in the order)
+    public List<String> before(final String test) {
+        final int index = indexOf(test);
+        return index < 0 ? tests : subList(0, index);
+    }
+
+    // The tests not in the given tests, keeping their order
+    public List<String> excluding(final Collection<String> excluded) {
+        final Set<String> excludedSet = excluded instanceof Set ? (Set<String>) excluded : new HashSet<>(excluded);
+        final List<String> result = new ArrayList<>();
+        for (final String test : tests) {
+            if (!excludedSet.contains(test)) {
+                result.add(test);
+            }
+        }
+        return result;
+    }
+
+    // The tests in this order that are not in the other order, keeping their order
+    public List<String> complement(final TestOrder other) {
+        final List<String> result = new ArrayList<>();
+        for (final String test : tests) {
+            if (!other.contains(test)) {
+                result.add(test);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof TestOrder && tests.equals(((TestOrder) obj).tests);
+    }
+
+    @Override
+    public int hashCode() {
+        return tests.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return tests.toString();
+    }
+
+    // The list of tests, which knows which order it belongs to
+    private class View extends AbstractList<String> implements RandomAccess {
+        private final List<String> backing;
+
+        private View(final List<String> backing) {
+            this.backing = backing;
+        }
+
+        private TestOrder order() {
+            return TestOrder.this;
+        }
+
+        @Override
+        public String get(final int index) {
+            return backing.get(index);
+        }
+
+        @Override
+        public int size() {
+            return backing.size();
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return positions.containsKey(o);
+        }
+
+        @Override
+        public int indexOf(final Object o) {
+            return o instanceof String ? TestOrder.this.indexOf((String) o) : -1;
+        }
+    }
+}
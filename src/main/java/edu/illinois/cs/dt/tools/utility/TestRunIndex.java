@@ -0,0 +1,290 @@
+package edu.illinois.cs.dt.tools.utility;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.reedoei.eunomia.io.files.FileUtil;
+import com.reedoei.eunomia.util.RuntimeThrower;
+import edu.illinois.cs.dt.tools.runner.RunnerPathManager;
+import edu.illinois.cs.testrunner.data.results.Result;
+import edu.illinois.cs.testrunner.data.results.TestResult;
+import edu.illinois.cs.testrunner.data.results.TestRunResult;
+import edu.illinois.cs.testrunner.mavenplugin.TestPluginPlugin;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Index over all the test runs of the module (the results under test-runs), so finding the runs a test is in does not
+// need to parse every run again: for each test, the runs it is in and its positions in them, and for each run, its
+// order and the result of each test
+// The index is kept on disk as segments of runs, and brought up to date (by update) before a set of queries by adding
+// a segment with only the runs done since the last time (the positions of each test are built from the runs when loading)
+public class TestRunIndex {
+    public static final Path RUN_INDEX = Paths.get("test-run-index");
+    // Once there are this many segments, they are combined into one so loading does not need to read many small files
+    private static final int MAX_SEGMENTS = 32;
+
+    private static final Map<Path, TestRunIndex> indexes = new HashMap<>();
+
+    public static synchronized TestRunIndex index() {
+        return indexes.computeIfAbsent(PathManager.path(RUN_INDEX), TestRunIndex::new);
+    }
+
+    private final Path path;
+    private int segments = -1;  // Number of segments on disk, or -1 if the index was not loaded yet
+
+    private final Map<String, IndexedRun> runs = new LinkedHashMap<>();
+    private final List<IndexedRun> runsByNumber = new ArrayList<>();
+    // For each test, pairs of (run number, position) for every time it was run, in the order the runs were indexed
+    private final Map<String, Positions> positions = new HashMap<>();
+
+    private TestRunIndex(final Path path) {
+        this.path = path;
+    }
+
+    // The indexed run, or null if it was not indexed as of the last update
+    public synchronized IndexedRun run(final String id) {
+        return runs.get(id);
+    }
+
+    // Position of the first time the test is in each run it is in, by run id (in the order the runs were indexed)
+    public synchronized Map<String, Integer> firstPositions(final String test) {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        final Positions testPositions = positions.get(test);
+        if (testPositions != null) {
+            for (int i = 0; i < testPositions.size; i++) {
+                result.putIfAbsent(runsByNumber.get(testPositions.run(i)).id(), testPositions.position(i));
+            }
+        }
+        return result;
+    }
+
+    // Position where the tests first show up next to each other in each run they do, by run id
+    // Only the positions of the first test need to be tried, like TestOrder.infixIndex
+    public synchronized Map<String, Integer> infixPositions(final List<String> tests) {
+        final Map<String, Integer> result = new LinkedHashMap<>();
+        final Positions firstPositions = tests.isEmpty() ? null : positions.get(tests.get(0));
+        if (firstPositions == null) {
+            return result;
+        }
+
+        for (int i = 0; i < firstPositions.size; i++) {
+            final IndexedRun run = runsByNumber.get(firstPositions.run(i));
+            final int start = firstPositions.position(i);
+            if (!result.containsKey(run.id()) && start + tests.size() <= run.order().size() &&
+                run.order().subList(start, start + tests.size()).equals(tests)) {
+                result.put(run.id(), start);
+            }
+        }
+        return result;
+    }
+
+    // Index the runs done since the index was last brought up to date, which needs to list every run, so it is done once
+    // before using the index rather than for every query
+    public synchronized TestRunIndex update() {
+        final Path resultsPath = RunnerPathManager.resultsPath();
+        final Set<String> ids = new HashSet<>();
+        if (Files.isDirectory(resultsPath)) {
+            new RuntimeThrower<>(() -> {
+                try (final Stream<Path> files = Files.list(resultsPath)) {
+                    files.forEach(f -> ids.add(f.getFileName().toString()));
+                }
+
+                return null;
+            }).run();
+        }
+
+        if (segments < 0) {
+            load();
+        }
+        // Runs were removed (e.g., the test runs were cleared), so start over
+        if (!ids.containsAll(runs.keySet())) {
+            TestPluginPlugin.debug("Some indexed test runs no longer exist, rebuilding the test run index");
+            clear();
+        }
+
+        final List<String> newIds = ids.stream().filter(id -> !runs.containsKey(id)).sorted().collect(Collectors.toList());
+        if (newIds.isEmpty()) {
+            return this;
+        }
+
+        final List<IndexedRun> newRuns = new ArrayList<>();
+        for (final String id : newIds) {
+            final TestRunResult testRunResult = new RuntimeThrower<>(() ->
+                    new Gson().fromJson(FileUtil.readFile(RunnerPathManager.resultsPath(id)), TestRunResult.class)).run();
+            if (testRunResult != null) {
+                final IndexedRun run = IndexedRun.of(id, testRunResult);
+                add(run);
+                newRuns.add(run);
+            }
+        }
+
+        if (segments + 1 >= MAX_SEGMENTS) {
+            compact();
+        } else {
+            writeSegment(segments, newRuns);
+            segments++;
+        }
+        return this;
+    }
+
+    private void load() {
+        segments = 0;
+        if (!Files.isDirectory(path)) {
+            return;
+        }
+
+        while (Files.exists(segmentPath(segments))) {
+            final Path segmentPath = segmentPath(segments);
+            List<IndexedRun> segmentRuns = null;
+            try {
+                segmentRuns = new RuntimeThrower<>(() ->
+                        new Gson().<List<IndexedRun>>fromJson(FileUtil.readFile(segmentPath),
+                                new TypeToken<List<IndexedRun>>(){}.getType())).run();
+            } catch (JsonParseException e) {
+                TestPluginPlugin.info("Could not read " + segmentPath + " (" + e.getMessage() + ")");
+            }
+            // Segments are written atomically, so this should not happen, but the runs themselves are still there
+            if (segmentRuns == null) {
+                TestPluginPlugin.info("Rebuilding the test run index from the test runs");
+                clear();
+                return;
+            }
+            segmentRuns.forEach(this::add);
+            segments++;
+        }
+    }
+
+    private void add(final IndexedRun indexed) {
+        final IndexedRun run = indexed.interned();
+        final int number = runsByNumber.size();
+        runs.put(run.id(), run);
+        runsByNumber.add(run);
+        for (int i = 0; i < run.order().size(); i++) {
+            positions.computeIfAbsent(run.order().get(i), t -> new Positions()).add(number, i);
+        }
+    }
+
+    private void clear() {
+        runs.clear();
+        runsByNumber.clear();
+        positions.clear();
+        deleteSegments(0);
+        segments = 0;
+    }
+
+    // The other segments are deleted before the combined one replaces the first one, so dying partway never leaves runs
+    // in two segments (at worst, runs are missing from the index, and are added again by the next update)
+    private void compact() {
+        final Path temp = writeTemp(0, runsByNumber);
+        deleteSegments(1);
+        new RuntimeThrower<>(() -> Files.move(temp, segmentPath(0), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)).run();
+        segments = 1;
+    }
+
+    private void deleteSegments(final int from) {
+        for (int i = from; Files.exists(segmentPath(i)); i++) {
+            final Path segmentPath = segmentPath(i);
+            new RuntimeThrower<>(() -> Files.deleteIfExists(segmentPath)).run();
+        }
+    }
+
+    // Written to a temporary file that then becomes the segment, so dying partway never leaves half a segment
+    private void writeSegment(final int segment, final List<IndexedRun> segmentRuns) {
+        final Path temp = writeTemp(segment, segmentRuns);
+        new RuntimeThrower<>(() -> Files.move(temp, segmentPath(segment), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)).run();
+    }
+
+    private Path writeTemp(final int segment, final List<IndexedRun> segmentRuns) {
+        final Path temp = path.resolve("segment-" + segment + ".json.tmp");
+        new RuntimeThrower<>(() -> {
+            Files.createDirectories(path);
+            Files.write(temp, new Gson().toJson(segmentRuns).getBytes());
+
+            return null;
+        }).run();
+        return temp;
+    }
+
+    private Path segmentPath(final int segment) {
+        return path.resolve("segment-" + segment + ".json");
+    }
+
+    // Only what is needed to look at a run later: the order and the result of each test (no output or stack traces)
+    public static class IndexedRun {
+        private final String id;
+        private final List<String> order;
+        private final Map<String, Result> results;
+
+        private IndexedRun(final String id, final List<String> order, final Map<String, Result> results) {
+            this.id = id;
+            this.order = order;
+            this.results = results;
+        }
+
+        private static IndexedRun of(final String id, final TestRunResult testRunResult) {
+            final Map<String, Result> results = new HashMap<>();
+            for (final Map.Entry<String, TestResult> entry : testRunResult.results().entrySet()) {
+                results.put(entry.getKey(), entry.getValue().result());
+            }
+            return new IndexedRun(id, testRunResult.testOrder(), results);
+        }
+
+        // The same names show up in many runs, so only keep one copy of each
+        private IndexedRun interned() {
+            final List<String> internedOrder = order.stream().map(String::intern).collect(Collectors.toList());
+            final Map<String, Result> internedResults = new HashMap<>();
+            results.forEach((test, result) -> internedResults.put(test.intern(), result));
+            return new IndexedRun(id, Collections.unmodifiableList(internedOrder), Collections.unmodifiableMap(internedResults));
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public List<String> order() {
+            return order;
+        }
+
+        // The result of the test in this run, or null if it has none (e.g., the run stopped before the test)
+        public Result result(final String test) {
+            return results.get(test);
+        }
+    }
+
+    // Growable list of (run number, position) pairs, since there can be one for every test in every run
+    private static class Positions {
+        private int[] pairs = new int[4];
+        private int size;
+
+        private void add(final int run, final int position) {
+            if (2 * size + 2 > pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+            pairs[2 * size] = run;
+            pairs[2 * size + 1] = position;
+            size++;
+        }
+
+        private int run(final int i) {
+            return pairs[2 * i];
+        }
+
+        private int position(final int i) {
+            return pairs[2 * i + 1];
+        }
+    }
+}
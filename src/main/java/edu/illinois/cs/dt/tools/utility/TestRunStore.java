@@ -0,0 +1,168 @@
+package edu.illinois.cs.dt.tools.utility;
+
+import com.google.gson.Gson;
+import com.reedoei.eunomia.io.files.FileUtil;
+import com.reedoei.eunomia.util.RuntimeThrower;
+import edu.illinois.cs.dt.tools.runner.RunnerPathManager;
+import edu.illinois.cs.dt.tools.runner.data.TestRun;
+import edu.illinois.cs.testrunner.configuration.Configuration;
+import edu.illinois.cs.testrunner.data.results.TestRunResult;
+import edu.illinois.cs.testrunner.mavenplugin.TestPluginPlugin;
+import scala.util.Try;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Results of test runs, keyed by the order that was run and a fingerprint of the compiled code it was run on
+// Used to avoid running an order again when it was already run (e.g., during detection) on the same bytecode
+public class TestRunStore {
+    public static final boolean REUSE_RUNS = Configuration.config().getProperty("dt.reuse.runs", true);
+    public static final Path RUN_STORE = Paths.get("test-run-store");
+
+    // One store per module, since each module has its own cache and compiled code
+    private static final Map<Path, TestRunStore> stores = new HashMap<>();
+
+    public static synchronized TestRunStore store() {
+        return stores.computeIfAbsent(PathManager.path(RUN_STORE), TestRunStore::new);
+    }
+
+    private final Path path;
+
+    // The compiled code only changes when the tools build the project again (see codeChanged), so the fingerprint is
+    // only computed the first time it is needed after that
+    private FileTime lastModified;
+    private String fingerprint;
+
+    private TestRunStore(final Path path) {
+        this.path = path;
+    }
+
+    // The stored result of running exactly this order on the current compiled code, if there is one
+    public synchronized Optional<TestRunResult> lookup(final List<String> order) {
+        if (!REUSE_RUNS) {
+            return Optional.empty();
+        }
+
+        final Path runPath = runPath(order);
+        if (!Files.exists(runPath)) {
+            return Optional.empty();
+        }
+
+        final TestRunResult testRunResult =
+                new RuntimeThrower<>(() -> new Gson().fromJson(FileUtil.readFile(runPath), TestRunResult.class)).run();
+        // Make sure it is not just an order with the same hash
+        if (!testRunResult.testOrder().equals(order)) {
+            return Optional.empty();
+        }
+
+        TestPluginPlugin.debug("Reusing stored result of test run " + testRunResult.id() + " instead of running the order again");
+        return Optional.of(testRunResult);
+    }
+
+    // Save the run (if it ran at all) for later lookups, returning the same run to keep using it
+    public Try<TestRunResult> record(final Try<TestRunResult> testRunResult) {
+        if (testRunResult.isSuccess()) {
+            record(testRunResult.get());
+        }
+        return testRunResult;
+    }
+
+    public synchronized void record(final TestRunResult testRunResult) {
+        if (!REUSE_RUNS) {
+            return;
+        }
+
+        final Path runPath = runPath(testRunResult.testOrder());
+        new RuntimeThrower<>(() -> {
+            Files.createDirectories(runPath.getParent());
+            Files.write(runPath, new Gson().toJson(testRunResult).getBytes());
+
+            return null;
+        }).run();
+    }
+
+    // Add a run from an earlier phase (e.g., detection), but only if the compiled code did not change since it was run
+    // The fingerprint of the code at the time is not known, so this is the best that can be done to know it is the same
+    public synchronized void importRun(final TestRun testRun) {
+        if (!REUSE_RUNS) {
+            return;
+        }
+
+        final Path resultPath = RunnerPathManager.resultsPath(testRun.testRunId());
+        final Optional<TestRunResult> testRunResult = RunnerPathManager.resultFor(testRun.testRunId()).findFirst();
+        if (!testRunResult.isPresent() || Files.exists(runPath(testRunResult.get().testOrder()))) {
+            return;
+        }
+
+        fingerprint();
+        final FileTime ranAt = new RuntimeThrower<>(() -> Files.getLastModifiedTime(resultPath)).run();
+        if (lastModified == null || ranAt.compareTo(lastModified) > 0) {
+            record(testRunResult.get());
+        }
+    }
+
+    // The project was built again, so the compiled code may have changed
+    public synchronized void codeChanged() {
+        fingerprint = null;
+        lastModified = null;
+    }
+
+    private Path runPath(final List<String> order) {
+        return path.resolve(MD5.hashOrder(order) + "-" + fingerprint() + ".json");
+    }
+
+    // Hash of all the compiled main and test classes of the module
+    private String fingerprint() {
+        if (fingerprint == null) {
+            final List<Path> files = classFiles();
+            fingerprint = new RuntimeThrower<>(() -> {
+                final MessageDigest digest = MessageDigest.getInstance("MD5");
+                for (final Path file : files) {
+                    digest.update(file.toString().getBytes());
+                    digest.update(Files.readAllBytes(file));
+                }
+                return String.format("%032x", new BigInteger(1, digest.digest()));
+            }).run();
+            lastModified = files.stream()
+                    .map(f -> new RuntimeThrower<>(() -> Files.getLastModifiedTime(f)).run())
+                    .max(FileTime::compareTo)
+                    .orElse(null);
+        }
+
+        return fingerprint;
+    }
+
+    private List<Path> classFiles() {
+        final List<Path> files = new ArrayList<>();
+
+        for (final String dir : new String[] {
+                TestPluginPlugin.mavenProject().getBuild().getOutputDirectory(),
+                TestPluginPlugin.mavenProject().getBuild().getTestOutputDirectory()}) {
+            final Path root = Paths.get(dir);
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+
+            new RuntimeThrower<>(() -> {
+                try (final Stream<Path> paths = Files.walk(root)) {
+                    files.addAll(paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList()));
+                }
+
+                return null;
+            }).run();
+        }
+
+        return files;
+    }
+}
@@ -0,0 +1,158 @@
+package edu.illinois.cs.dt.tools.utility;
+
+import edu.illinois.cs.testrunner.configuration.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+// Reruns something until a sequential probability ratio test decides whether its outcome is reliable, instead of
+// rerunning it a fixed number of times: outcomes that keep reproducing stop after a few runs, and outcomes that do not
+// always reproduce get more runs to decide (up to a given number of runs, after which the outcome is not confirmed)
+// The test is between the outcome reproducing with probability dt.verify.reliable_rate (it is reliable) and with
+// probability dt.verify.unreliable_rate (it is flaky), with both kinds of error at most 1 - dt.verify.confidence
+public class Verification<T> {
+    public static final double CONFIDENCE = Configuration.config().getProperty("dt.verify.confidence", 0.95);
+    private static final double RELIABLE_RATE = Configuration.config().getProperty("dt.verify.reliable_rate", 0.95);
+    private static final double UNRELIABLE_RATE = Configuration.config().getProperty("dt.verify.unreliable_rate", 0.25);
+    // Default number of runs to decide in: a reliable outcome is confirmed in 3 runs, and 6 are enough to still confirm
+    // it after one run that does not reproduce it (with the default rates and confidence)
+    public static final int MAX_RUNS = Configuration.config().getProperty("dt.verify.max_runs", 6);
+
+    private static final double BOUND = Math.log(CONFIDENCE / (1 - CONFIDENCE));
+    private static final double REPRODUCED = Math.log(RELIABLE_RATE / UNRELIABLE_RATE);
+    private static final double NOT_REPRODUCED = Math.log((1 - RELIABLE_RATE) / (1 - UNRELIABLE_RATE));
+
+    private final T outcome;
+    private final boolean confirmed;
+    private final int runs;
+    private final double confidence;    // Probability the outcome is reliable given the runs (with even prior odds)
+    private final transient boolean decided;
+
+    private Verification(final T outcome, final boolean confirmed, final int runs, final double confidence,
+                         final boolean decided) {
+        this.outcome = outcome;
+        this.confirmed = confirmed;
+        this.runs = runs;
+        this.confidence = confidence;
+        this.decided = decided;
+    }
+
+    // Confirm that the check reliably holds, running it at most maxRuns times
+    public static Verification<Boolean> confirm(final BooleanSupplier check, final int maxRuns) {
+        return verify(check::getAsBoolean, 1, maxRuns, true, false);
+    }
+
+    // Confirm that running always has the same outcome, whatever it is, stopping at the first run with a different one
+    // (for outcomes that are only meaningful if they never change, like the result of a test in isolation)
+    // The first run (one of the maxRuns) decides which outcome is tested, so only the runs after it count towards
+    // confirming it
+    // Runs are done parallelism at a time, using the supplier from that many threads at once if more than one
+    public static <T> Verification<T> consistent(final Supplier<T> run, final int parallelism, final int maxRuns) {
+        return verify(run, parallelism, maxRuns, null, true);
+    }
+
+    // Tests whether the outcome reproduces, or if it is null, whether the outcome of the first run does
+    private static <T> Verification<T> verify(final Supplier<T> run, final int parallelism, final int runLimit,
+                                              final T outcome, final boolean strict) {
+        final int maxRuns = Math.max(1, runLimit);
+        Verification<T> verification = null;
+        final Tally<T> tally = new Tally<>(outcome, strict);
+        if (parallelism <= 1) {
+            for (int i = 0; i < maxRuns; i++) {
+                verification = tally.add(run.get());
+                if (verification.decided) {
+                    break;
+                }
+            }
+            return verification;
+        }
+
+        final ExecutorService workers = Executors.newFixedThreadPool(parallelism);
+        final CompletionService<T> runs = new ExecutorCompletionService<>(workers);
+        final List<Future<T>> submitted = new ArrayList<>();
+        try {
+            while (submitted.size() < Math.min(parallelism, maxRuns)) {
+                submitted.add(runs.submit(run::get));
+            }
+            // Take the runs in whatever order they finish, starting another one for each until the outcome is decided
+            for (int i = 0; i < maxRuns; i++) {
+                verification = tally.add(runs.take().get());
+                if (verification.decided) {
+                    break;
+                }
+                if (submitted.size() < maxRuns) {
+                    submitted.add(runs.submit(run::get));
+                }
+            }
+            return verification;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            // Do not start any more runs once the outcome is decided (ones already running finish on their own)
+            submitted.forEach(f -> f.cancel(false));
+            workers.shutdown();
+        }
+    }
+
+    private static class Tally<T> {
+        private final boolean strict;   // Whether any run that does not reproduce the outcome decides it is not reliable
+        private T outcome;
+        private int runs;
+        private int reproduced;
+        private int notReproduced;
+
+        private Tally(final T outcome, final boolean strict) {
+            this.outcome = outcome;
+            this.strict = strict;
+        }
+
+        // The verification after this run, which is decided if the runs so far are enough
+        private Verification<T> add(final T result) {
+            runs++;
+            if (outcome == null) {
+                outcome = result;
+            } else if (outcome.equals(result)) {
+                reproduced++;
+            } else {
+                notReproduced++;
+            }
+
+            final double llr = reproduced * REPRODUCED + notReproduced * NOT_REPRODUCED;
+            final boolean confirmed = llr >= BOUND && !(strict && notReproduced > 0);
+            final boolean decided = confirmed || llr <= -BOUND || (strict && notReproduced > 0);
+            return new Verification<>(outcome, confirmed, runs, 1 / (1 + Math.exp(-llr)), decided);
+        }
+    }
+
+    public T outcome() {
+        return outcome;
+    }
+
+    // Whether the outcome was found to be reliable with the configured confidence; if not, it is either flaky or could
+    // not be decided within the runs allowed
+    public boolean confirmed() {
+        return confirmed;
+    }
+
+    public int runs() {
+        return runs;
+    }
+
+    public double confidence() {
+        return confidence;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s after %d run(s), confidence %.4f)",
+                outcome, confirmed ? "confirmed" : "not confirmed", runs, confidence);
+    }
+}
@@ -0,0 +1,76 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+// Delta debugging over contiguous blocks of elements instead of individual elements
+// A group of blocks is checked by flattening it and checking it with the element-level delta debugger
+public class BlockDeltaDebugger<T> extends DeltaDebugger<List<T>> {
+
+    private final DeltaDebugger<T> elementDebugger;
+
+    public BlockDeltaDebugger(final DeltaDebugger<T> elementDebugger) {
+        this.elementDebugger = elementDebugger;
+    }
+
+    // Splits the elements into blocks of consecutive elements that have the same key, keeping the order
+    public static <T> List<List<T>> blocks(final List<T> elements, final Function<T, ?> key) {
+        final List<List<T>> blocks = new ArrayList<>();
+        Object currentKey = null;
+        for (final T element : elements) {
+            final Object elementKey = key.apply(element);
+            if (blocks.isEmpty() || !Objects.equals(currentKey, elementKey)) {
+                blocks.add(new ArrayList<>());
+                currentKey = elementKey;
+            }
+            blocks.get(blocks.size() - 1).add(element);
+        }
+        return blocks;
+    }
+
+    public static <T> List<T> flatten(final List<List<T>> blocks) {
+        final List<T> elements = new ArrayList<>();
+        for (final List<T> block : blocks) {
+            elements.addAll(block);
+        }
+        return elements;
+    }
+
+    @Override
+    public boolean checkValid(final List<List<T>> blocks) {
+        return elementDebugger.isValid(flatten(blocks));
+    }
+
+    // Checks are counted against the element-level delta debugger's budget, so share it
+    @Override
+    protected boolean outOfBudget() {
+        return elementDebugger.outOfBudget();
+    }
+
+    // Delta debugging over the elements of one block, keeping all the other blocks as they are
+    static class WithinBlockDeltaDebugger<T> extends DeltaDebugger<T> {
+        private final DeltaDebugger<T> elementDebugger;
+        private final List<List<T>> blocks;
+        private final int index;
+
+        WithinBlockDeltaDebugger(final DeltaDebugger<T> elementDebugger, final List<List<T>> blocks, final int index) {
+            this.elementDebugger = elementDebugger;
+            this.blocks = blocks;
+            this.index = index;
+        }
+
+        @Override
+        public boolean checkValid(final List<T> elements) {
+            final List<List<T>> withElements = new ArrayList<>(blocks);
+            withElements.set(index, elements);
+            return elementDebugger.isValid(flatten(withElements));
+        }
+
+        @Override
+        protected boolean outOfBudget() {
+            return elementDebugger.outOfBudget();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import edu.illinois.cs.testrunner.configuration.Configuration;
+
+// Limit on how long and how many checks delta debugging can use, shared by all the delta debuggers given the same budget
+// The time starts counting at the first time the budget is consulted, not when it is created
+public class DeltaDebugBudget {
+    private final double seconds;   // Time limit, no limit if not positive
+    private final int runs;         // Limit on number of checks, no limit if not positive
+
+    private long startTime = -1;
+    private int runsUsed;
+    private boolean truncated;      // Whether some delta debugger actually stopped early because of this budget
+
+    public DeltaDebugBudget(final double seconds, final int runs) {
+        this.seconds = seconds;
+        this.runs = runs;
+    }
+
+    public static DeltaDebugBudget unlimited() {
+        return new DeltaDebugBudget(-1, -1);
+    }
+
+    public static DeltaDebugBudget fromConfig() {
+        return new DeltaDebugBudget(Configuration.config().getProperty("dt.deltadebug.budget.seconds", -1.0),
+                                    Configuration.config().getProperty("dt.deltadebug.budget.runs", -1));
+    }
+
+    public synchronized boolean exhausted() {
+        if (startTime < 0) {
+            startTime = System.currentTimeMillis();
+        }
+
+        return (seconds > 0 && System.currentTimeMillis() - startTime >= seconds * 1000) ||
+               (runs > 0 && runsUsed >= runs);
+    }
+
+    // Count one more check against the budget
+    synchronized void spend() {
+        runsUsed++;
+    }
+
+    synchronized void truncate() {
+        truncated = true;
+    }
+
+    // Whether any result found under this budget is only the best so far, rather than proven minimal
+    public synchronized boolean truncated() {
+        return truncated;
+    }
+
+    public synchronized int runsUsed() {
+        return runsUsed;
+    }
+}
@@ -0,0 +1,21 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+// Notified of what a delta debugger does, for collecting metrics about delta debugging sessions
+// Checks can happen concurrently, so implementations must be safe to call from several threads
+public interface DeltaDebugListener {
+    // The size elements are about to be cut into n chunks
+    default void granularity(final int size, final int n) {
+    }
+
+    // checkValid was actually called on a subset of the given size, taking the given time
+    default void checked(final int size, final double seconds, final boolean valid) {
+    }
+
+    // The result for a subset of the given size came from the cache, without calling checkValid
+    default void cached(final int size, final boolean valid) {
+    }
+
+    // The elements were reduced to a smaller valid subset
+    default void reduced(final int fromSize, final int toSize) {
+    }
+}
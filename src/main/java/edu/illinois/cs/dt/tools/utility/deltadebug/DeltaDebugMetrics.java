@@ -0,0 +1,121 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import com.google.gson.GsonBuilder;
+import com.reedoei.eunomia.util.RuntimeThrower;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Aggregates the events of one delta debugging session, to tell whether a slow session made too many checks or
+// made slow checks
+public class DeltaDebugMetrics implements DeltaDebugListener {
+    // Upper bounds of the histogram buckets, the last bucket holds everything larger
+    private static final double[] SECONDS_BOUNDS = {0.1, 1, 10, 60, 600};
+    private static final int[] SIZE_BOUNDS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024};
+
+    private final String session;
+    private String strategy;        // How the session searched (e.g., the polluter search), if the user of it says
+
+    private int granularityChanges;
+    private int maxGranularity;
+
+    private int checks;
+    private int validChecks;
+    private int cacheHits;
+    private double checkSeconds;    // Total time spent in checkValid
+    private double maxCheckSeconds;
+
+    private int reductions;
+    private final List<Integer> sizes = new ArrayList<>();  // Number of elements after each reduction, starting with the original
+
+    private final Map<String, Integer> checkSecondsHistogram = new LinkedHashMap<>();
+    private final Map<String, Integer> checkSizeHistogram = new LinkedHashMap<>();
+
+    public DeltaDebugMetrics(final String session) {
+        this.session = session;
+
+        // Put in all the buckets up front, so they are written out in order even if empty
+        for (final double bound : SECONDS_BOUNDS) {
+            checkSecondsHistogram.put(secondsBucket(bound), 0);
+        }
+        checkSecondsHistogram.put(secondsBucket(Double.MAX_VALUE), 0);
+        for (final int bound : SIZE_BOUNDS) {
+            checkSizeHistogram.put(sizeBucket(bound), 0);
+        }
+        checkSizeHistogram.put(sizeBucket(Integer.MAX_VALUE), 0);
+    }
+
+    public synchronized void strategy(final String strategy) {
+        this.strategy = strategy;
+    }
+
+    @Override
+    public synchronized void granularity(final int size, final int n) {
+        if (sizes.isEmpty()) {
+            sizes.add(size);
+        }
+        granularityChanges++;
+        maxGranularity = Math.max(maxGranularity, n);
+    }
+
+    @Override
+    public synchronized void checked(final int size, final double seconds, final boolean valid) {
+        checks++;
+        if (valid) {
+            validChecks++;
+        }
+        checkSeconds += seconds;
+        maxCheckSeconds = Math.max(maxCheckSeconds, seconds);
+
+        checkSecondsHistogram.merge(secondsBucket(seconds), 1, Integer::sum);
+        checkSizeHistogram.merge(sizeBucket(size), 1, Integer::sum);
+    }
+
+    private static String secondsBucket(final double seconds) {
+        for (final double bound : SECONDS_BOUNDS) {
+            if (seconds <= bound) {
+                return "<=" + bound;
+            }
+        }
+        return ">" + SECONDS_BOUNDS[SECONDS_BOUNDS.length - 1];
+    }
+
+    private static String sizeBucket(final int size) {
+        for (final int bound : SIZE_BOUNDS) {
+            if (size <= bound) {
+                return "<=" + bound;
+            }
+        }
+        return ">" + SIZE_BOUNDS[SIZE_BOUNDS.length - 1];
+    }
+
+    @Override
+    public synchronized void cached(final int size, final boolean valid) {
+        cacheHits++;
+    }
+
+    @Override
+    public synchronized void reduced(final int fromSize, final int toSize) {
+        reductions++;
+        sizes.add(toSize);
+    }
+
+    public synchronized void save(final Path path) {
+        new RuntimeThrower<>(() -> {
+            Files.createDirectories(path.getParent());
+            Files.write(path, new GsonBuilder().disableHtmlEscaping().create().toJson(this).getBytes());
+
+            return null;
+        }).run();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s: %d checks (%d valid) in %.3f seconds, %d cache hits, %d reductions, %d granularity changes",
+                strategy == null ? session : session + " (" + strategy + ")", checks, validChecks, checkSeconds, cacheHits, reductions, granularityChanges);
+    }
+}
@@ -1,62 +1,506 @@
 package edu.illinois.cs.dt.tools.utility.deltadebug;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 // Utility class for handling general delta debugging
 public abstract class DeltaDebugger<T> {
 
     protected int iterations;   // Keep track of number of iterations the delta debugging went through
 
+    private SubsetCache<T> cache;   // Optional cache of subsets already checked, null if every subset should be checked
+    private int cacheHits;          // Number of times a subset result came from the cache
+    private int cacheMisses;        // Number of times a subset had to actually be checked while using the cache
+    private int checks;             // Number of times checkValid was actually called
+
+    private int parallelism = 1;        // Number of chunks/complements to check at the same time
+    private ExecutorService workers;    // Workers checking chunks/complements, only set while delta debugging concurrently
+
+    private Function<T, Double> weight; // Expected cost of checking each element, null if every element costs the same
+
+    private DeltaDebugBudget budget;    // Limit on time/checks, null if delta debugging can go on until it is done
+    private boolean minimal = true;     // Set to false once delta debugging stopped early because the budget ran out
+
+    private final List<DeltaDebugListener> listeners = new ArrayList<>();
+    private BiConsumer<List<T>, Integer> checkpoint;    // Given the state at the start of each iteration, null if not needed
+
     // Core logic for delta debugging, generalized to elements
     public List<T> deltaDebug(final List<T> elements, int n) {
-        this.iterations++;
+        if (this.parallelism <= 1) {
+            return debug(elements, n);
+        }
+
+        this.workers = Executors.newFixedThreadPool(this.parallelism);
+        try {
+            return debug(elements, n);
+        } finally {
+            this.workers.shutdown();
+            this.workers = null;
+        }
+    }
+
+    // Iterative version of delta debugging: every subset is kept as positions into one copy of the elements,
+    // and is only turned into a list (a view, not a copy) when it actually needs to be checked
+    private List<T> debug(final List<T> elements, int n) {
+        final Object[] backing = elements.toArray();
+        int[] current = new int[backing.length];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = i;
+        }
+
+        // Take the weights once up front, so they stay the same for the whole run even if the weight function changes
+        double[] weights = null;
+        if (this.weight != null) {
+            weights = new double[backing.length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = this.weight.apply(elements.get(i));
+            }
+        }
+
+        while (true) {
+            this.iterations++;
+
+            // If n granularity is greater than number of tests, then finished, simply return remaining tests
+            if (current.length < n) {
+                break;
+            }
+            // If out of budget, then stop here, the remaining elements are the smallest valid ones found so far
+            if (outOfBudget()) {
+                stopEarly();
+                break;
+            }
+
+            if (this.checkpoint != null) {
+                this.checkpoint.accept(new ArrayList<>(new Subset<T>(backing, current, 0, current.length, false)), n);
+            }
+            for (final DeltaDebugListener listener : this.listeners) {
+                listener.granularity(current.length, n);
+            }
+
+            // Cut the elements into n chunks, either equal in number of elements or in total weight
+            final int[] bounds = weights == null ? equalChunks(current.length, n) : weightedChunks(weights, current, n);
+            List<Subset<T>> candidates = new ArrayList<>();
+            for (int c = 0; c + 1 < bounds.length; c++) {
+                // Try to other, complement chunk first, with theory that valid elements are closer to end
+                candidates.add(new Subset<T>(backing, current, bounds[c], bounds[c + 1], true));
+                // Check if running this chunk works
+                candidates.add(new Subset<T>(backing, current, bounds[c], bounds[c + 1], false));
+            }
+            if (weights != null) {
+                candidates = cheapestFirst(weights, candidates);
+            }
+
+            int[] reduced = null;
+            if (this.workers == null) {
+                for (final Subset<T> candidate : candidates) {
+                    if (isValidWithinBudget(candidate)) {
+                        reduced = candidate.positions();
+                        break;
+                    }
+                }
+            } else {
+                // Check all the complements and chunks at once, but take the first valid one in the same order as above
+                int validIndex = firstValid(candidates);
+                if (validIndex >= 0) {
+                    reduced = candidates.get(validIndex).positions();
+                }
+            }
+
+            // If works, then delta debug some more the reduced elements, starting again with two chunks
+            if (reduced != null) {
+                for (final DeltaDebugListener listener : this.listeners) {
+                    listener.reduced(current.length, reduced.length);
+                }
+                current = reduced;
+                n = 2;
+                continue;
+            }
+            // If some chunk/complement was not checked because the budget ran out, cannot tell whether to go further
+            if (!isMinimal()) {
+                break;
+            }
+            // If size is equal to number of chunks, we are finished, cannot go down more
+            if (current.length == n) {
+                break;
+            }
+            // If not chunk/complement work, increase granularity and try again
+            if (current.length < n * 2) {
+                n = current.length;
+            } else {
+                n = n * 2;
+            }
+        }
+
+        return new ArrayList<>(new Subset<T>(backing, current, 0, current.length, false));
+    }
+
+    // Chunk boundaries (as positions into current) for n chunks of as close to equal size as possible
+    private static int[] equalChunks(final int size, final int n) {
+        final int chunkSize = (int)Math.round((double)size / n);
+        final int[] bounds = new int[(size + chunkSize - 1) / chunkSize + 1];
+        for (int c = 0; c < bounds.length; c++) {
+            bounds[c] = Math.min(size, c * chunkSize);
+        }
+        return bounds;
+    }
+
+    // Chunk boundaries for n chunks of as close to equal total weight as possible, with at least one element in each chunk
+    private static int[] weightedChunks(final double[] weights, final int[] current, final int n) {
+        double total = 0;
+        for (int position : current) {
+            total += weights[position];
+        }
+        if (total <= 0) {
+            return equalChunks(current.length, n);
+        }
+
+        final int[] bounds = new int[n + 1];
+        bounds[n] = current.length;
+        double cumulative = 0;
+        int i = 0;
+        for (int c = 1; c < n; c++) {
+            // Always move past at least one element, and leave at least one element for each of the chunks after this one
+            do {
+                cumulative += weights[current[i]];
+                i++;
+            } while (i < current.length - (n - c) && cumulative + weights[current[i]] / 2 < total * c / n);
+            bounds[c] = i;
+        }
+        return bounds;
+    }
+
+    // Stable sort of the candidates by their total weight, so cheaper candidates are checked first
+    // Candidates with the same weight keep their order, so complements still come before their chunks on ties
+    private static <T> List<Subset<T>> cheapestFirst(final double[] weights, final List<Subset<T>> candidates) {
+        final double[] costs = new double[candidates.size()];
+        for (int c = 0; c < costs.length; c++) {
+            for (int position : candidates.get(c).positions()) {
+                costs[c] += weights[position];
+            }
+        }
+
+        final List<Integer> order = new ArrayList<>();
+        for (int c = 0; c < costs.length; c++) {
+            order.add(c);
+        }
+        order.sort(Comparator.comparingDouble(c -> costs[c]));
+
+        final List<Subset<T>> sorted = new ArrayList<>();
+        for (int c : order) {
+            sorted.add(candidates.get(c));
+        }
+        return sorted;
+    }
+
+    // Two-level delta debugging: first over contiguous blocks of elements with the same key, then over the elements
+    // of only the blocks that remain, one block at a time
+    // Every remaining block is needed, so minimizing each block with the others kept as they are still gives a result
+    // that is minimal at the element level (assuming removing elements never makes an invalid subset valid)
+    public List<T> hierarchicalDeltaDebug(final List<T> elements, final Function<T, ?> blockKey) {
+        final List<List<T>> blocks = BlockDeltaDebugger.blocks(elements, blockKey);
+        if (blocks.size() <= 1) {
+            return deltaDebug(elements, 2);
+        }
+
+        // The checks of the block-level delta debuggers are checks of this one, which already lets the listeners know,
+        // so only pass on the rest
+        final DeltaDebugListener blockListener = new DeltaDebugListener() {
+            @Override
+            public void granularity(final int size, final int n) {
+                for (final DeltaDebugListener listener : listeners) {
+                    listener.granularity(size, n);
+                }
+            }
+
+            @Override
+            public void reduced(final int fromSize, final int toSize) {
+                for (final DeltaDebugListener listener : listeners) {
+                    listener.reduced(fromSize, toSize);
+                }
+            }
+        };
+
+        final BlockDeltaDebugger<T> blockDebugger = new BlockDeltaDebugger<>(this);
+        blockDebugger.withParallelism(this.parallelism);
+        blockDebugger.withListener(blockListener);
+        if (this.checkpoint != null) {
+            blockDebugger.withCheckpoint((remainingBlocks, n) -> this.checkpoint.accept(BlockDeltaDebugger.flatten(remainingBlocks), n));
+        }
+        if (this.weight != null) {
+            blockDebugger.withWeight(block -> block.stream().mapToDouble(this.weight::apply).sum());
+        }
+        final List<List<T>> remaining = new ArrayList<>(blockDebugger.deltaDebug(blocks, 2));
+        this.iterations += blockDebugger.getIterations();
+        if (!blockDebugger.isMinimal()) {
+            stopEarly();
+        }
+
+        for (int i = 0; i < remaining.size(); i++) {
+            final BlockDeltaDebugger.WithinBlockDeltaDebugger<T> withinDebugger =
+                    new BlockDeltaDebugger.WithinBlockDeltaDebugger<>(this, remaining, i);
+            withinDebugger.withParallelism(this.parallelism);
+            withinDebugger.withWeight(this.weight);
+            withinDebugger.withListener(blockListener);
+            if (this.checkpoint != null) {
+                final int index = i;
+                withinDebugger.withCheckpoint((remainingElements, n) -> {
+                    final List<List<T>> withElements = new ArrayList<>(remaining);
+                    withElements.set(index, remainingElements);
+                    this.checkpoint.accept(BlockDeltaDebugger.flatten(withElements), n);
+                });
+            }
+            remaining.set(i, withinDebugger.deltaDebug(remaining.get(i), 2));
+            this.iterations += withinDebugger.getIterations();
+            if (!withinDebugger.isMinimal()) {
+                stopEarly();
+            }
+        }
+
+        return BlockDeltaDebugger.flatten(remaining);
+    }
+
+    // Faster alternative to delta debugging when exactly one element is expected to make the elements valid:
+    // bisect the elements, only checking one half at each step, then confirm the single element found by itself
+    // Returns empty if that element is not valid by itself, meaning the assumption did not hold
+    public Optional<T> bisect(final List<T> elements) {
+        if (elements.isEmpty()) {
+            return Optional.empty();
+        }
 
-        // If n granularity is greater than number of tests, then finished, simply return passed in tests
-        if (elements.size() < n) {
-            return elements;
+        final Object[] backing = elements.toArray();
+        final int[] positions = new int[backing.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
         }
 
-        // Cut the elements into n equal chunks and try each chunk
-        int chunkSize = (int)Math.round((double)(elements.size()) / n);
-        List<List<T>> chunks = new ArrayList<>();
-        for (int i = 0; i < elements.size(); i += chunkSize) {
-            List<T> chunk = new ArrayList<>();
-            List<T> otherChunk = new ArrayList<>();
-            // Create chunk starting at this iteration
-            int endpoint = Math.min(elements.size(), i + chunkSize);
-            chunk.addAll(elements.subList(i, endpoint));
+        int from = 0;
+        int to = positions.length;
+        while (to - from > 1) {
+            this.iterations++;
+            if (outOfBudget()) {
+                stopEarly();
+                return Optional.empty();
+            }
+            int mid = from + (to - from) / 2;
+            for (final DeltaDebugListener listener : this.listeners) {
+                listener.granularity(to - from, 2);
+            }
+
+            // Check the later half, with theory that valid elements are closer to end
+            // If it does not work, then the single element must be in the earlier half
+            final int size = to - from;
+            if (isValid(new Subset<T>(backing, positions, mid, to, false))) {
+                from = mid;
+            } else {
+                to = mid;
+            }
+            for (final DeltaDebugListener listener : this.listeners) {
+                listener.reduced(size, to - from);
+            }
+        }
+
+        final Subset<T> single = new Subset<>(backing, positions, from, to, false);
+        if (isValidWithinBudget(single)) {
+            return Optional.of(single.get(0));
+        }
+        return Optional.empty();
+    }
+
+    // Look for the valid elements near the end first: check the suffixes made of the last 1, 2, 4, ... contiguous blocks
+    // of elements with the same key, returning the first valid one to delta debug over instead of all the elements
+    // Stops once the suffix would be at least half of the elements, since then it is cheaper to just delta debug over
+    // all of them (the suffixes found not valid are in the cache, if there is one, so delta debugging can skip them)
+    public Optional<List<T>> nearestValidSuffix(final List<T> elements, final Function<T, ?> blockKey) {
+        final List<List<T>> blocks = BlockDeltaDebugger.blocks(elements, blockKey);
+
+        for (int count = 1; count < blocks.size(); count *= 2) {
+            final List<T> suffix = BlockDeltaDebugger.flatten(blocks.subList(blocks.size() - count, blocks.size()));
+            if (2 * suffix.size() >= elements.size()) {
+                break;
+            }
+
+            this.iterations++;
+            if (outOfBudget()) {
+                stopEarly();
+                break;
+            }
+            for (final DeltaDebugListener listener : this.listeners) {
+                listener.granularity(elements.size(), blocks.size() / count);
+            }
+            if (isValid(suffix)) {
+                for (final DeltaDebugListener listener : this.listeners) {
+                    listener.reduced(elements.size(), suffix.size());
+                }
+                return Optional.of(suffix);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    // Check all candidates using the workers, returning the index of the first valid one in order (or -1 if none are valid)
+    private int firstValid(final List<? extends List<T>> candidates) {
+        final List<Future<Boolean>> results = new ArrayList<>();
+        for (final List<T> candidate : candidates) {
+            results.add(this.workers.submit(() -> isValidWithinBudget(candidate)));
+        }
+
+        try {
+            // A later candidate may finish first, but it only wins if all the ones before it are not valid
+            for (int i = 0; i < results.size(); i++) {
+                if (results.get(i).get()) {
+                    return i;
+                }
+            }
+            return -1;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(e);
+        } finally {
+            // Once the winner is decided, do not start any remaining candidates (ones already running finish on their own)
+            for (Future<Boolean> result : results) {
+                result.cancel(false);
+            }
+        }
+    }
+
+    // Check the subset as usual, unless out of budget, in which case it is treated as not valid without checking
+    private boolean isValidWithinBudget(final List<T> elements) {
+        if (outOfBudget()) {
+            stopEarly();
+            return false;
+        }
+        return isValid(elements);
+    }
+
+    protected boolean outOfBudget() {
+        return this.budget != null && this.budget.exhausted();
+    }
 
-            // Complement chunk are elements before and after this current chunk
-            otherChunk.addAll(elements.subList(0, i));
-            otherChunk.addAll(elements.subList(endpoint, elements.size()));
+    private synchronized void stopEarly() {
+        this.minimal = false;
+        if (this.budget != null) {
+            this.budget.truncate();
+        }
+    }
+
+    // Check the subset, consulting the cache first if one is set
+    protected boolean isValid(final List<T> elements) {
+        if (this.cache == null) {
+            return timedCheckValid(elements);
+        }
 
-            // Try to other, complement chunk first, with theory that valid elements are closer to end
-            if (checkValid(otherChunk)) {
-                return deltaDebug(otherChunk, 2);   // If works, then delta debug some more the complement chunk
+        final Optional<Boolean> known = this.cache.lookup(elements);
+        synchronized (this) {
+            if (known.isPresent()) {
+                this.cacheHits++;
+            } else {
+                this.cacheMisses++;
             }
-            // Check if running this chunk works
-            if (checkValid(chunk)) {
-                return deltaDebug(chunk, 2);        // If works, then delta debug some more this chunk
+        }
+        if (known.isPresent()) {
+            for (final DeltaDebugListener listener : this.listeners) {
+                listener.cached(elements.size(), known.get());
             }
+            return known.get();
         }
-        // If size is equal to number of chunks, we are finished, cannot go down more
-        if (elements.size() == n) {
-            return elements;
+
+        final boolean valid = timedCheckValid(elements);
+        this.cache.record(elements, valid);
+        return valid;
+    }
+
+    // Actually call checkValid, counting it and letting the listeners know how long it took
+    private boolean timedCheckValid(final List<T> elements) {
+        spend();
+
+        final long startTime = System.nanoTime();
+        final boolean valid = checkValid(elements);
+        final double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        for (final DeltaDebugListener listener : this.listeners) {
+            listener.checked(elements.size(), seconds, valid);
         }
-        // If not chunk/complement work, increase granularity and try again
-        if (elements.size() < n * 2) {
-            return deltaDebug(elements, elements.size());
-        } else {
-            return deltaDebug(elements, n * 2);
+        return valid;
+    }
+
+    private synchronized void spend() {
+        this.checks++;
+        if (this.budget != null) {
+            this.budget.spend();
         }
     }
 
+    // Set the cache to use for subset results; the cache can be shared with other delta debuggers with the same checkValid
+    public DeltaDebugger<T> withCache(final SubsetCache<T> cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    // Check up to this many chunks/complements at the same time; checkValid must then be safe to call from several threads
+    public DeltaDebugger<T> withParallelism(final int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    // Split chunks by total weight instead of by number of elements, and check cheaper chunks/complements first
+    public DeltaDebugger<T> withWeight(final Function<T, Double> weight) {
+        this.weight = weight;
+        return this;
+    }
+
+    // Stop delta debugging once the budget runs out, returning the smallest valid elements found so far
+    public DeltaDebugger<T> withBudget(final DeltaDebugBudget budget) {
+        this.budget = budget;
+        return this;
+    }
+
+    // Give the checkpoint the remaining elements and granularity at the start of each iteration of delta debugging
+    // Calling deltaDebug with those continues from where delta debugging was, as long as checkValid gives the same results
+    // For hierarchical delta debugging, the elements are all remaining elements, to be passed to hierarchicalDeltaDebug
+    public DeltaDebugger<T> withCheckpoint(final BiConsumer<List<T>, Integer> checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    // Let the listener know about everything this delta debugger does from now on
+    public DeltaDebugger<T> withListener(final DeltaDebugListener listener) {
+        this.listeners.add(listener);
+        return this;
+    }
+
+    // Whether the result is proven minimal, rather than the best found before the budget ran out
+    public synchronized boolean isMinimal() {
+        return this.minimal;
+    }
+
     // Getter method for number of iterations
     public int getIterations() {
         return this.iterations;
     }
 
+    // Getter method for number of subset results answered by the cache
+    public synchronized int getCacheHits() {
+        return this.cacheHits;
+    }
+
+    // Getter method for number of subset results that had to be checked while using the cache
+    public synchronized int getCacheMisses() {
+        return this.cacheMisses;
+    }
+
+    // Getter method for number of times checkValid was actually called
+    public synchronized int getChecks() {
+        return this.checks;
+    }
+
     // Method to check if chunks during delta debugging is valid, to be overwritten by subclasses for specific delta debugging tasks
     public abstract boolean checkValid(List<T> elements);
 }
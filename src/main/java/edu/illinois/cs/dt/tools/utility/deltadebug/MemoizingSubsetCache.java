@@ -0,0 +1,42 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Simple cache that remembers the exact subsets that were checked
+// The key is a copy of the subset in order, so the same cache can be shared by delta debuggers over the same elements
+public class MemoizingSubsetCache<T> implements SubsetCache<T> {
+
+    private final Map<List<T>, Boolean> results = new HashMap<>();
+
+    @Override
+    public synchronized Optional<Boolean> lookup(final List<T> elements) {
+        return Optional.ofNullable(results.get(elements));
+    }
+
+    @Override
+    public synchronized void record(final List<T> elements, final boolean valid) {
+        results.put(new ArrayList<>(elements), valid);
+    }
+
+    @Override
+    public synchronized Optional<List<T>> smallestValidWithin(final List<T> elements) {
+        final Set<T> within = new HashSet<>(elements);
+        return results.entrySet().stream()
+                .filter(Map.Entry::getValue)
+                .map(Map.Entry::getKey)
+                .filter(within::containsAll)
+                .min(Comparator.comparingInt(List::size))
+                .map(ArrayList::new);
+    }
+
+    public synchronized int size() {
+        return results.size();
+    }
+}
@@ -0,0 +1,68 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Cache that also infers outcomes of subsets never checked, assuming validity is monotonic: if a subset is not valid,
+// no subset of it is valid, and if a subset is valid, every superset of it (from the same elements, in the same order)
+// is valid too
+// Only use when that holds, otherwise inferred outcomes can be wrong
+public class MonotonicSubsetCache<T> extends MemoizingSubsetCache<T> {
+
+    private final List<Set<T>> valid = new ArrayList<>();     // Smallest valid subsets recorded, none contains another
+    private final List<Set<T>> invalid = new ArrayList<>();   // Largest invalid subsets recorded, none contains another
+    private int inferred;   // Number of lookups answered from other subsets, each one a check that did not need to run
+
+    @Override
+    public synchronized Optional<Boolean> lookup(final List<T> elements) {
+        final Optional<Boolean> known = super.lookup(elements);
+        if (known.isPresent()) {
+            return known;
+        }
+
+        final Set<T> subset = new HashSet<>(elements);
+        for (final Set<T> validSubset : valid) {
+            if (subset.containsAll(validSubset)) {
+                inferred++;
+                return Optional.of(true);
+            }
+        }
+        for (final Set<T> invalidSubset : invalid) {
+            if (invalidSubset.containsAll(subset)) {
+                inferred++;
+                return Optional.of(false);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public synchronized void record(final List<T> elements, final boolean isValid) {
+        super.record(elements, isValid);
+
+        // Only keep the subsets that say the most, the others are already implied by them
+        final Set<T> subset = new HashSet<>(elements);
+        if (isValid) {
+            valid.removeIf(validSubset -> validSubset.containsAll(subset));
+            valid.add(subset);
+        } else {
+            invalid.removeIf(subset::containsAll);
+            invalid.add(subset);
+        }
+    }
+
+    @Override
+    public synchronized Set<T> invalidAlone() {
+        final Set<T> elements = new HashSet<>();
+        invalid.forEach(elements::addAll);
+        return elements;
+    }
+
+    @Override
+    public synchronized int inferred() {
+        return inferred;
+    }
+}
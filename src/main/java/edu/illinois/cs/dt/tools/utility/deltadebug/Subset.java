@@ -0,0 +1,51 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// A chunk (or its complement) of the current elements, as a read-only list view over the original elements
+class Subset<T> extends AbstractList<T> implements RandomAccess {
+    private final Object[] backing;     // The original elements
+    private final int[] positions;      // Positions in backing of the current elements, in order
+    private final int from;             // Start of the chunk in positions (inclusive)
+    private final int to;               // End of the chunk in positions (exclusive)
+    private final boolean complement;   // If true, this is every current element except the chunk
+
+    Subset(final Object[] backing, final int[] positions, final int from, final int to, final boolean complement) {
+        this.backing = backing;
+        this.positions = positions;
+        this.from = from;
+        this.to = to;
+        this.complement = complement;
+    }
+
+    static int[] complement(final int[] positions, final int from, final int to) {
+        final int[] result = new int[positions.length - (to - from)];
+        System.arraycopy(positions, 0, result, 0, from);
+        System.arraycopy(positions, to, result, from, positions.length - to);
+        return result;
+    }
+
+    // Positions in backing of the elements of this subset
+    int[] positions() {
+        return complement ? complement(positions, from, to) : Arrays.copyOfRange(positions, from, to);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (!complement) {
+            return (T) backing[positions[from + index]];
+        }
+        return (T) backing[positions[index < from ? index : index + (to - from)]];
+    }
+
+    @Override
+    public int size() {
+        return complement ? positions.length - (to - from) : to - from;
+    }
+}
@@ -0,0 +1,31 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+// Stores the outcome of checking subsets during delta debugging, so the same subset need not be checked twice
+public interface SubsetCache<T> {
+
+    // Returns the known outcome for the subset, or empty if the subset needs to actually be checked
+    Optional<Boolean> lookup(List<T> elements);
+
+    // Records the outcome of actually checking the subset
+    void record(List<T> elements, boolean valid);
+
+    // The smallest subset recorded as valid that only has elements from the given elements, if any was recorded
+    default Optional<List<T>> smallestValidWithin(final List<T> elements) {
+        return Optional.empty();
+    }
+
+    // Elements known to not be valid on their own, since they are in some subset recorded as not valid
+    default Set<T> invalidAlone() {
+        return Collections.emptySet();
+    }
+
+    // Number of lookups answered by inferring from other subsets, rather than from checking the same subset before
+    default int inferred() {
+        return 0;
+    }
+}
@@ -0,0 +1,142 @@
+package edu.illinois.cs.dt.tools.utility.deltadebug;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+// Check counts of the delta debugging strategies against a synthetic oracle, where a subset of tests is valid exactly
+// when it contains all of the given polluters, so the counts are the same on every run
+public class DeltaDebuggerTest {
+    private static final int CLASSES = 16;
+    private static final int TESTS_PER_CLASS = 8;
+
+    private static final Function<String, String> CLASS_NAME = test -> test.substring(0, test.indexOf('.'));
+
+    private static class Oracle extends DeltaDebugger<String> {
+        private final List<String> polluters;
+
+        private Oracle(final String... polluters) {
+            this.polluters = Arrays.asList(polluters);
+        }
+
+        @Override
+        public boolean checkValid(final List<String> elements) {
+            return elements.containsAll(polluters);
+        }
+    }
+
+    private static List<String> tests() {
+        final List<String> tests = new ArrayList<>();
+        for (int c = 0; c < CLASSES; c++) {
+            for (int t = 0; t < TESTS_PER_CLASS; t++) {
+                tests.add("C" + c + ".test" + t);
+            }
+        }
+        return tests;
+    }
+
+    private static int log2(final int n) {
+        return 32 - Integer.numberOfLeadingZeros(n - 1);
+    }
+
+    @Test
+    public void deltaDebugFindsSinglePolluter() {
+        final List<String> tests = tests();
+        for (final String polluter : tests) {
+            final Oracle oracle = new Oracle(polluter);
+            assertEquals(Collections.singletonList(polluter), oracle.deltaDebug(tests, 2));
+            assertTrue(oracle.isMinimal());
+            // Each halving takes at most two checks (complement, then chunk), and the last step checks both singletons
+            assertTrue(polluter + ": " + oracle.getChecks(), oracle.getChecks() <= 2 * log2(tests.size()) + 2);
+        }
+    }
+
+    @Test
+    public void deltaDebugFindsSeveralPolluters() {
+        final List<String> tests = tests();
+        final Oracle oracle = new Oracle("C1.test2", "C9.test5", "C15.test7");
+        assertEquals(Arrays.asList("C1.test2", "C9.test5", "C15.test7"), oracle.deltaDebug(tests, 2));
+        assertTrue(oracle.isMinimal());
+    }
+
+    @Test
+    public void cacheNeverAddsChecks() {
+        final List<String> tests = tests();
+        for (final String polluter : Arrays.asList("C0.test0", "C7.test3", "C15.test7")) {
+            final Oracle plain = new Oracle(polluter, "C3.test1");
+            final Oracle cached = new Oracle(polluter, "C3.test1");
+            cached.withCache(new MemoizingSubsetCache<>());
+
+            assertEquals(plain.deltaDebug(tests, 2), cached.deltaDebug(tests, 2));
+            assertEquals(cached.getChecks(), cached.getCacheMisses());
+            assertTrue(cached.getChecks() <= plain.getChecks());
+        }
+    }
+
+    @Test
+    public void bisectChecksOncePerHalving() {
+        final List<String> tests = tests();
+        for (final String polluter : tests) {
+            final Oracle oracle = new Oracle(polluter);
+            assertEquals(Optional.of(polluter), oracle.bisect(tests));
+            // One check per halving, plus confirming the single test by itself
+            assertEquals(log2(tests.size()) + 1, oracle.getChecks());
+        }
+    }
+
+    @Test
+    public void bisectRejectsTwoPolluters() {
+        final Oracle oracle = new Oracle("C1.test2", "C9.test5");
+        assertFalse(oracle.bisect(tests()).isPresent());
+    }
+
+    // A polluter in the last two classes is found with fewer checks by first looking at the nearest suffix, and one in
+    // the two classes before that with no more checks (the suffixes not valid are in the cache); either way the result
+    // is the same as delta debugging over everything
+    @Test
+    public void nearestSuffixSavesChecksForNearbyPolluter() {
+        final List<String> tests = tests();
+        for (int c = CLASSES - 4; c < CLASSES; c++) {
+            for (int t = 0; t < TESTS_PER_CLASS; t++) {
+                final String polluter = "C" + c + ".test" + t;
+
+                final Oracle full = new Oracle(polluter);
+                final List<String> fullResult = full.deltaDebug(tests, 2);
+
+                final Oracle local = new Oracle(polluter);
+                local.withCache(new MemoizingSubsetCache<>());
+                final Optional<List<String>> suffix = local.nearestValidSuffix(tests, CLASS_NAME);
+                assertTrue(suffix.isPresent());
+                assertEquals(fullResult, local.deltaDebug(suffix.get(), 2));
+
+                final String counts = polluter + ": " + local.getChecks() + " vs " + full.getChecks();
+                if (c >= CLASSES - 2) {
+                    assertTrue(counts, local.getChecks() < full.getChecks());
+                } else {
+                    assertTrue(counts, local.getChecks() <= full.getChecks());
+                }
+            }
+        }
+    }
+
+    // A polluter far from the end is not in any suffix that is checked, which costs one check per doubling of the suffix
+    @Test
+    public void nearestSuffixBoundsWastedChecksForFarPolluter() {
+        final List<String> tests = tests();
+        for (int t = 0; t < TESTS_PER_CLASS; t++) {
+            final Oracle oracle = new Oracle("C0.test" + t);
+            assertFalse(oracle.nearestValidSuffix(tests, CLASS_NAME).isPresent());
+            // Suffixes of 1, 2, 4 classes, stopping before the suffix would be half of the tests
+            assertEquals(log2(CLASSES) - 1, oracle.getChecks());
+        }
+    }
+}